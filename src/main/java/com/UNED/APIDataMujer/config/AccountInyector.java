@@ -10,6 +10,7 @@ import com.UNED.APIDataMujer.mapper.UserMapper;
 import com.UNED.APIDataMujer.repository.LegalPersonRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
 import com.UNED.APIDataMujer.service.registration.PersonRegisterService;
+import com.UNED.APIDataMujer.service.resource.PaymentSummaryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -28,6 +29,7 @@ public class AccountInyector implements CommandLineRunner {
     private final UserMapper userMapper;
 
     private final PersonRegisterService personRegisterService;
+    private final PaymentSummaryService paymentSummaryService;
 
     @Override
     @Transactional
@@ -52,6 +54,7 @@ public class AccountInyector implements CommandLineRunner {
         insertUser.setActive(true);
 
         var user = userRepository.save(insertUser);
+        paymentSummaryService.createFor(user.getId());
 
         var legal = personMapper.toEntity(user.getPerson(), legalData);
 
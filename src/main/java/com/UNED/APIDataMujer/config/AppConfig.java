@@ -2,13 +2,18 @@ package com.UNED.APIDataMujer.config;
 
 import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.security.BoundedPasswordEncoder;
+import com.UNED.APIDataMujer.security.principal.SecurityUser;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -22,14 +27,26 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @RequiredArgsConstructor
 public class AppConfig {
 
+    @Value("${application.security.hashing.strength:10}")
+    private int hashingStrength;
+    @Value("${application.security.hashing.pool-size:4}")
+    private int hashingPoolSize;
+    @Value("${application.security.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+    @Value("${application.security.hashing.timeout:5000}")
+    private long hashingTimeout;
+    @Value("${application.security.hashing.retry-after:2}")
+    private long hashingRetryAfter;
+
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Bean de Spring Security que carga los datos de un usuario desde la
      * BD mediante una interfaz UserDetails.
      * Usado en login y jwtFilter para cargar un usuario con credenciales válidas y
      * en SecurityFilterChain para indicar a la aplicación como autenticar usuarios.
-     * @return objeto UserDetails que especifica username, password encriptado y sus roles.
+     * @return objeto UserDetails (SecurityUser) que envuelve la entidad del usuario.
      * @throws UsernameNotFoundException en caso de que el usuario no se encuentre en la BD.
      * */
     @Bean
@@ -38,11 +55,7 @@ public class AppConfig {
             final User user = userRepository.findByUsername(username)
                     .orElseThrow(() ->
                             new UsernameNotFoundException("El nombre de usuario: "+username+" no se ha encontrado."));
-            return org.springframework.security.core.userdetails.User.builder()
-                    .username(user.getUsername())
-                    .password(user.getPassword())
-                    .authorities(user.getRole().name())
-                    .build();
+            return new SecurityUser(user);
         };
     }
 
@@ -54,9 +67,30 @@ public class AppConfig {
     public AuthenticationProvider authenticationProvider(){
         DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider(userDetailsService());
         daoAuthenticationProvider.setPasswordEncoder(passwordEncoder());
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return daoAuthenticationProvider;
     }
 
+    /**
+     * Bean que re-codifica la contraseña de un usuario al iniciar sesión cuando su hash fue
+     * generado con un factor de costo distinto al configurado. Permite ajustar dicho factor
+     * sin forzar el restablecimiento masivo de contraseñas.
+     * @return servicio de actualización de contraseñas.
+     * */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService(){
+        return (user, newPassword) -> {
+            userRepository.updatePassword(user.getUsername(), newPassword);
+            if(user instanceof SecurityUser securityUser){
+                securityUser.user().setPassword(newPassword);
+                return securityUser;
+            }
+            return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                    .password(newPassword)
+                    .build();
+        };
+    }
+
     /**
      * Bean que organiza los authentications entre los AuthenticationProvider.
      * El cliente envía un login captado por el endpoint, del endpoint va al
@@ -74,9 +108,18 @@ public class AppConfig {
     }
 
     /**
-     * Bean que encripta contraseñas con cifrado BCrypt.
+     * Bean que encripta contraseñas con cifrado BCrypt. El hash se ejecuta en un pool de
+     * hilos dedicado y acotado para no saturar los hilos de Tomcat.
      * @return Codificador.
      * */
-    @Bean
-    public PasswordEncoder passwordEncoder(){ return new BCryptPasswordEncoder(); }
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(){
+        return new BoundedPasswordEncoder(
+                new BCryptPasswordEncoder(hashingStrength),
+                hashingPoolSize,
+                hashingQueueCapacity,
+                hashingTimeout,
+                hashingRetryAfter,
+                meterRegistry);
+    }
 }
@@ -0,0 +1,47 @@
+package com.UNED.APIDataMujer.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Configuración del limitador de peticiones de las rutas públicas costosas (login,
+ * refresco, recuperación de contraseña y registro).
+ * @param enabled habilita o deshabilita el limitador.
+ * @param maxKeys cantidad máxima de llaves (IP/usuario por ruta) en memoria.
+ * @param idleTimeout milisegundos tras los cuales una llave sin uso se desaloja.
+ * @param evictionInterval milisegundos entre ejecuciones de la tarea de desalojo.
+ * @param routes límites por IP de cada ruta, indexados por un nombre.
+ * @param loginPerUser límite de intentos de login por nombre de usuario.
+ * @author glunah2001
+ * */
+@ConfigurationProperties(prefix = "application.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("100000") int maxKeys,
+        @DefaultValue("600000") long idleTimeout,
+        @DefaultValue("60000") long evictionInterval,
+        Map<String, Route> routes,
+        @DefaultValue Limit loginPerUser
+) {
+
+    /**
+     * Límite de una ruta.
+     * @param path ruta exacta o prefijo terminado en "/**".
+     * @param capacity cantidad máxima de peticiones en ráfaga.
+     * @param refillPeriod milisegundos en los que se recarga la capacidad completa.
+     * */
+    public record Route(String path, int capacity, long refillPeriod) { }
+
+    /**
+     * Límite sin ruta asociada.
+     * @param capacity cantidad máxima de peticiones en ráfaga.
+     * @param refillPeriod milisegundos en los que se recarga la capacidad completa.
+     * */
+    public record Limit(@DefaultValue("5") int capacity, @DefaultValue("300000") long refillPeriod) { }
+
+    public RateLimitProperties {
+        routes = routes == null ? Map.of() : routes;
+    }
+}
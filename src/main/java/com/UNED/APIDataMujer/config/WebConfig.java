@@ -0,0 +1,28 @@
+package com.UNED.APIDataMujer.config;
+
+import com.UNED.APIDataMujer.security.principal.CurrentUserArgumentResolver;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Clase de configuración de Spring MVC. Registra los resolvedores de argumentos propios
+ * de la API y las propiedades del limitador de peticiones.
+ * @author glunah2001
+ * */
+@Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+}
@@ -1,12 +1,13 @@
 package com.UNED.APIDataMujer.controller;
 
 import com.UNED.APIDataMujer.dto.request.ActivityRegisterDTO;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.security.principal.CurrentUser;
 import com.UNED.APIDataMujer.service.resource.ActivityService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -59,25 +60,33 @@ public class ActivityController {
      * Función encargada de obtener todas las actividades que no han
      * sido finalizadas.
      * @param page indicador de paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return página de 25 actividades en DTO.
      * */
     @GetMapping("/all")
-    public ResponseEntity<?> getAllActiveActivities(@RequestParam(defaultValue = "0") int page){
-        var activities = activityService.getAllActiveActivities(page);
+    public ResponseEntity<?> getAllActiveActivities(@RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(activityService.getAllActiveActivities(cursor));
+        var activities = activityService.getAllActiveActivities(page, includeTotal);
         return ResponseEntity.ok(activities);
     }
 
     /**
      * Función encargada de dar de baja una actividad.
      * @param id identificador de la actividad.
-     * @param auth credenciales del usuario mentor/administrador.
+     * @param user usuario autenticado que realiza la petición.
      * @return se espera un código 204 (Éxito pero sin contenido que retornar)
      * */
     @DeleteMapping
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
     public ResponseEntity<?> deleteActivity(@RequestParam(defaultValue = "0") long id,
-                                            final Authentication auth){
-        activityService.deleteActivity(id, auth);
+                                            @CurrentUser final User user){
+        activityService.deleteActivity(id, user);
         return ResponseEntity.noContent().build();
     }
 
@@ -5,12 +5,16 @@ import com.UNED.APIDataMujer.dto.authentication.UserLoginDTO;
 import com.UNED.APIDataMujer.dto.token.TokenResponse;
 import com.UNED.APIDataMujer.service.authentication.AuthServiceImpl;
 import com.UNED.APIDataMujer.service.authentication.PasswordResetService;
+import com.UNED.APIDataMujer.service.jwt.JwtService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+
 /**
  * RestController encargado de escuchar las operaciones relacionadas con la
  * autentificación de usuarios.
@@ -25,6 +29,7 @@ public class AuthController {
 
     private final AuthServiceImpl authService;
     private final PasswordResetService passwordResetService;
+    private final JwtService jwtService;
 
     /**
      * Función post que permite a los usuarios iniciar sesión.
@@ -48,6 +53,18 @@ public class AuthController {
         return ResponseEntity.ok(token);
     }
 
+    /**
+     * Función get que publica las llaves públicas de verificación de los JWT (JWKS) para que
+     * otros servicios puedan verificar los tokens localmente.
+     * @return un JWK Set. Vacío si la API firma con secreto compartido.
+     * */
+    @GetMapping("/jwks")
+    public ResponseEntity<?> jwks(){
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(jwtService.getJwks());
+    }
+
     /**
      * Función post que permite a los usuarios solicitar un cambio de contraseña en caso
      * de olvidarla.
@@ -1,12 +1,13 @@
 package com.UNED.APIDataMujer.controller;
 
 import com.UNED.APIDataMujer.dto.request.ParticipationWrapperDTO;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.security.principal.CurrentUser;
 import com.UNED.APIDataMujer.service.resource.ParticipationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -38,42 +39,58 @@ public class ParticipationController {
 
     /**
      * Endpoint para consultar todas las participaciones de una actividad sin importar su estado.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param activityId identificador de la actividad.
      * @param page pagina.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * */
     @GetMapping("/InActivity")
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
-    public ResponseEntity<?> getActivityParticipation(final Authentication auth,
+    public ResponseEntity<?> getActivityParticipation(@CurrentUser final User user,
                                                       @RequestParam(defaultValue = "0") long activityId,
-                                                      @RequestParam(defaultValue = "0") int page){
-        var participation = participationService.getActivityParticipation(auth, activityId, page);
+                                                      @RequestParam(defaultValue = "0") int page,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(participationService.getActivityParticipation(user, activityId, cursor));
+        var participation = participationService.getActivityParticipation(user, activityId, page, includeTotal);
         return ResponseEntity.ok(participation);
     }
 
     /**
      * endpoint para solicitar mis participaciones.
-     * @param auth credenciales de usuario.
+     * @param user usuario autenticado que realiza la petición.
      * @param page paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return paginado con los endpoints de las participaciones en actividades sin clausurar
      * */
     @GetMapping("/me")
-    public ResponseEntity<?> getMyParticipation(final Authentication auth,
-                                                @RequestParam(defaultValue = "0") int page){
-        var participation = participationService.getMyParticipations(auth, page);
+    public ResponseEntity<?> getMyParticipation(@CurrentUser final User user,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(participationService.getMyParticipations(user, cursor));
+        var participation = participationService.getMyParticipations(user, page, includeTotal);
         return ResponseEntity.ok(participation);
     }
 
     /**
      * Endpoint para crear una participación en una actividad.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param activityId identificador de la actividad.
      * @return código 201 y el contenido de la participación junto a su ruta de consulta.
      * */
     @PostMapping
-    public ResponseEntity<?> createParticipation(final Authentication auth,
+    public ResponseEntity<?> createParticipation(@CurrentUser final User user,
                                                  @RequestParam(defaultValue = "0") long activityId){
-        var participation = participationService.createMyParticipation(auth, activityId);
+        var participation = participationService.createMyParticipation(user, activityId);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath()
                 .path("/participation")
@@ -86,58 +103,59 @@ public class ParticipationController {
     /**
      * Endpoint para la inserción de multiples participaciones en una actividad.
      * @param dto con información a insertar.
-     * @return código 201.
+     * @return código 201 con el resultado de cada nombre de usuario (CREATED, DUPLICATE o
+     * UNKNOWN_USER).
      * */
     @PostMapping("/multiple")
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
-    public ResponseEntity<?> postMultipleParticipation(final Authentication auth, @Valid @RequestBody ParticipationWrapperDTO dto){
-        var activityId = participationService.createParticipations(auth, dto);
+    public ResponseEntity<?> postMultipleParticipation(@CurrentUser final User user, @Valid @RequestBody ParticipationWrapperDTO dto){
+        var report = participationService.createParticipations(user, dto);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath()
                 .path("/participation/InActivity")
-                .queryParam("activityId", activityId)
+                .queryParam("activityId", report.activityId())
                 .build()
                 .toUri();
 
-        return ResponseEntity.created(location).build();
+        return ResponseEntity.created(location).body(report);
     }
 
     /**
      * Endpoint para indicar al sistema que la participación se ha puesto en marcha.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param id identificador de la participación.
      * @return contenido actualizado de la participación.
      * */
     @PutMapping("/start")
-    public ResponseEntity<?> startParticipation(final Authentication auth,
+    public ResponseEntity<?> startParticipation(@CurrentUser final User user,
                                                 @RequestParam(defaultValue = "0") long id){
-        var participation = participationService.updateStartDate(auth, id);
+        var participation = participationService.updateStartDate(user, id);
         return ResponseEntity.ok(participation);
     }
 
     /**
      * Endpoint para indicar al sistema que la participación se ha cancelado. (cierre antes de tiempo)
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param id identificador de la participación.
      * @return contenido actualizado de la participación.
      * */
     @PutMapping("/cancel")
-    public ResponseEntity<?> cancelParticipation(final Authentication auth,
+    public ResponseEntity<?> cancelParticipation(@CurrentUser final User user,
                                                  @RequestParam(defaultValue = "0") long id){
-        var participation = participationService.cancelParticipation(auth, id);
+        var participation = participationService.cancelParticipation(user, id);
         return ResponseEntity.ok(participation);
     }
 
     /**
      * Endpoint para eliminar una participación.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param id identificador de la participación.
      * @return código 204.
      * */
     @DeleteMapping
-    public ResponseEntity<?> deleteParticipation(final Authentication auth,
+    public ResponseEntity<?> deleteParticipation(@CurrentUser final User user,
                                                  @RequestParam(defaultValue = "0") long id){
-        participationService.deleteParticipation(auth, id);
+        participationService.deleteParticipation(user, id);
         return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
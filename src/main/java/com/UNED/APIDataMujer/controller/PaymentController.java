@@ -1,16 +1,21 @@
 package com.UNED.APIDataMujer.controller;
 
 import com.UNED.APIDataMujer.dto.request.PaymentRegisterDTO;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.security.principal.CurrentUser;
 import com.UNED.APIDataMujer.service.resource.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 
 /**
@@ -41,51 +46,83 @@ public class PaymentController {
      * Endpoint para obtener todos los pagos según su estado.
      * @param isPaid estado. False = pendientes. True = pagados.
      * @param page página de búsqueda.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return resultado de búsqueda con dto. Con información del pago.
      * */
     @GetMapping("/status")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
     public ResponseEntity<?> getPaymentsByStatus(@RequestParam(defaultValue = "true") boolean isPaid,
-                                                       @RequestParam(defaultValue = "0") int page){
-        var payments = paymentService.getPaymentsByStatus(isPaid, page);
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(paymentService.getPaymentsByStatus(isPaid, cursor));
+        var payments = paymentService.getPaymentsByStatus(isPaid, page, includeTotal);
         return ResponseEntity.ok(payments);
     }
 
     /**
      * Endpoint para obtener los pagos únicos de la persona.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param page página de búsqueda.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return resultado de búsqueda con dto. Con información del pago.
      * */
     @GetMapping("/me")
-    public ResponseEntity<?> getMyPayments(final Authentication auth,
-                                           @RequestParam(defaultValue = "0") int page){
-        var payments = paymentService.getMyPayments(auth, page);
+    public ResponseEntity<?> getMyPayments(@CurrentUser final User user,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(paymentService.getMyPayments(user, cursor));
+        var payments = paymentService.getMyPayments(user, page, includeTotal);
         return ResponseEntity.ok(payments);
     }
 
     /**
      * Endpoint para consultar información de usuarios afiliados.
-     * @param page pagina.
+     * @param cursor cursor de la página siguiente devuelto por la consulta anterior.
+     *               Se omite para obtener la primera página.
      * @return paginación de usuarios afiliados.
      * */
     @GetMapping("/affiliates-report")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<?> getAffiliatesReport(@RequestParam(defaultValue = "0") int page){
-        var report = paymentService.generateUserPaymentReport(page);
+    public ResponseEntity<?> getAffiliatesReport(@RequestParam(required = false) String cursor){
+        var report = paymentService.generateUserPaymentReport(cursor);
         return ResponseEntity.ok(report);
     }
 
+    /**
+     * Endpoint para exportar en CSV el reporte completo de usuarios afiliados. El archivo
+     * se escribe por lotes a medida que se consulta.
+     * @return archivo CSV con el reporte.
+     * */
+    @GetMapping("/affiliates-report/export")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportAffiliatesReport(){
+        StreamingResponseBody body = paymentService::exportUserPaymentReport;
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"affiliates-report.csv\"")
+                .body(body);
+    }
+
     /**
      * Endpoint para reportar un nuevo pago.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param dto Dto. Con información del pago realizado.
      * @return código 201.
      * */
     @PostMapping
-    public ResponseEntity<?> createPayment(final Authentication auth,
+    public ResponseEntity<?> createPayment(@CurrentUser final User user,
                                            @Valid @RequestBody final PaymentRegisterDTO dto){
-        var payment = paymentService.createPayment(auth, dto);
+        var payment = paymentService.createPayment(user, dto);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath()
                 .path("/payment")
@@ -97,16 +134,16 @@ public class PaymentController {
 
     /**
      * Endpoint para indicar que un pago reportado como pendiente ahora se ha pagado.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param id identificador del pago.
      * @param date la fecha en la que el pago fue hecho.
      * @return código 200 con DTO. Con los datos actualizados.
      * */
     @PutMapping("/paid")
-    public ResponseEntity<?> updatePaidPayment(final Authentication auth,
+    public ResponseEntity<?> updatePaidPayment(@CurrentUser final User user,
                                                @RequestParam(defaultValue = "0") long id,
                                                @RequestParam LocalDateTime date){
-        var payment = paymentService.updatePaidRecord(auth, id, date);
+        var payment = paymentService.updatePaidRecord(user, id, date);
         return ResponseEntity.ok(payment);
     }
 
@@ -2,6 +2,8 @@ package com.UNED.APIDataMujer.controller;
 
 import com.UNED.APIDataMujer.dto.request.LegalPersonUpdateDTO;
 import com.UNED.APIDataMujer.dto.request.PhysicalPersonUpdateDTO;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.security.principal.CurrentUser;
 import com.UNED.APIDataMujer.service.resource.LegalPersonService;
 import com.UNED.APIDataMujer.service.resource.PhysicalPersonService;
 import com.UNED.APIDataMujer.service.resource.UserService;
@@ -9,7 +11,6 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -29,28 +30,26 @@ public class UserController {
 
     /**
      * Función encargada de obtener el perfil propio de la persona.
-     * @param auth Authentication obtenida de los filtros de seguridad con la cual saber
-     *             cuál usuario está solicitando su información personal.
+     * @param user usuario autenticado que realiza la petición.
      * @return un dto. Con toda la información pública no comprometida del usuario.
      * */
     @GetMapping("/me")
-    public ResponseEntity<?> getMyProfile(final Authentication auth){
-        final var dto = userService.getMyProfile(auth);
+    public ResponseEntity<?> getMyProfile(@CurrentUser final User user){
+        final var dto = userService.getMyProfile(user);
         return ResponseEntity.ok(dto);
     }
 
     /**
      * Función encargada de actualizar el perfil de una persona física con nueva
      * información pública no comprometida.
-     * @param auth Authentication obtenida de los filtros de seguridad con la cual saber
-     *             cuál usuario está actualizando su información personal.
+     * @param myUser usuario autenticado que realiza la petición.
      * @param updateDto Dto. Con toda la información a actualizar.
      * @return Dto. Con toda su información actualizada.
      * */
     @PutMapping("/me/physical")
-    public ResponseEntity<?> updateMyPhysicalProfile(final Authentication auth,
+    public ResponseEntity<?> updateMyPhysicalProfile(@CurrentUser final User myUser,
                                              @Valid @RequestBody PhysicalPersonUpdateDTO updateDto){
-        final var user = userService.updateUserData(auth, updateDto.commonUpdateDTO());
+        final var user = userService.updateUserData(myUser, updateDto.commonUpdateDTO());
         var dto = physicalPersonService.updateMyPhysicalProfile(user, updateDto);
         return ResponseEntity.ok(dto);
     }
@@ -58,15 +57,14 @@ public class UserController {
     /**
      * Función encargada de actualizar el perfil de una persona legal con nueva
      * información pública no comprometida.
-     * @param auth Authentication obtenida de los filtros de seguridad con la cual saber
-     *             cuál usuario está actualizando su información personal.
+     * @param myUser usuario autenticado que realiza la petición.
      * @param updateDto Dto. Con toda la información a actualizar.
      * @return Dto. Con toda su información actualizada.
      * */
     @PutMapping("me/legal")
-    public ResponseEntity<?> updateMyLegalProfile(final Authentication auth,
+    public ResponseEntity<?> updateMyLegalProfile(@CurrentUser final User myUser,
                                              @Valid @RequestBody LegalPersonUpdateDTO updateDto){
-        final var user = userService.updateUserData(auth, updateDto.commonUpdateDTO());
+        final var user = userService.updateUserData(myUser, updateDto.commonUpdateDTO());
         var dto = legalPersonService.updateMyLegalProfile(user, updateDto);
         return ResponseEntity.ok(dto);
     }
@@ -74,17 +72,17 @@ public class UserController {
     /**
      * Endpoint para permitir a los usuarios administradores alterar los roles de una persona.
      * Preferiblemente que no se trate del administrador que aplica la operación.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param username nombre del usuario al cual aplicar el cambio.
      * @param role rol a asignar.
      * @return mensaje de confirmación con el cambio. Código 200.
      * */
     @PutMapping("/set/Role")
     @PreAuthorize("hasAuthority('ROLE_ADMIN')")
-    public ResponseEntity<?> updateRole(final Authentication auth,
+    public ResponseEntity<?> updateRole(@CurrentUser final User user,
                                         @RequestParam String username,
                                         @RequestParam(defaultValue = "0") int role){
-        var message = userService.setRole(auth, username, role);
+        var message = userService.setRole(user, username, role);
         return ResponseEntity.ok("Actualización realizada - "+message);
     }
 
@@ -139,12 +137,20 @@ public class UserController {
      * por un nombre determinado por el cliente.
      * @param name nombre por el que se buscará a los usuarios.
      * @param page indicador de paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return Dto. Con la información de los usuarios (personas físicas).
      * */
     @GetMapping("/search/name")
     public ResponseEntity<?> findByName(@RequestParam String name,
-                                        @RequestParam(defaultValue = "0") int page) {
-        return ResponseEntity.ok(physicalPersonService.getPersonByName(name, page));
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if(cursor != null)
+            return ResponseEntity.ok(physicalPersonService.getPersonByName(name, cursor));
+        return ResponseEntity.ok(physicalPersonService.getPersonByName(name, page, includeTotal));
     }
 
     /**
@@ -152,12 +158,20 @@ public class UserController {
      * por un apellido determinado por el cliente.
      * @param surname apellido por el que se buscará a los usuarios.
      * @param page indicador de paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return Dto. Con la información de los usuarios (personas físicas).
      * */
     @GetMapping("/search/surname")
     public ResponseEntity<?> findBySurname(@RequestParam String surname,
-                                           @RequestParam(defaultValue = "0") int page) {
-        return ResponseEntity.ok(physicalPersonService.getPersonBySurname(surname, page));
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if(cursor != null)
+            return ResponseEntity.ok(physicalPersonService.getPersonBySurname(surname, cursor));
+        return ResponseEntity.ok(physicalPersonService.getPersonBySurname(surname, page, includeTotal));
     }
 
     /**
@@ -165,11 +179,19 @@ public class UserController {
      * por un nombre de negocio determinado por el cliente.
      * @param businessName nombre de negocio por el que se buscará a los usuarios.
      * @param page indicador de paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return Dto. Con la información de los usuarios (personas jurídicas).
      * */
     @GetMapping("/search/business")
     public ResponseEntity<?> findByBusinessName(@RequestParam String businessName,
-                                                @RequestParam(defaultValue = "0") int page) {
-        return ResponseEntity.ok(legalPersonService.getPersonByBusinessName(businessName, page));
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if(cursor != null)
+            return ResponseEntity.ok(legalPersonService.getPersonByBusinessName(businessName, cursor));
+        return ResponseEntity.ok(legalPersonService.getPersonByBusinessName(businessName, page, includeTotal));
     }
 }
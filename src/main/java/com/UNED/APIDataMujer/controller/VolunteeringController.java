@@ -3,12 +3,13 @@ package com.UNED.APIDataMujer.controller;
 import com.UNED.APIDataMujer.dto.request.BaseVolunteeringRegisterDTO;
 import com.UNED.APIDataMujer.dto.request.VolunteeringUpdateDTO;
 import com.UNED.APIDataMujer.dto.request.VolunteeringWrapperDTO;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.security.principal.CurrentUser;
 import com.UNED.APIDataMujer.service.resource.VolunteeringService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -42,32 +43,48 @@ public class VolunteeringController {
     /**
      * Función encargada de atender las solicitudes que buscan obtener todos
      * los voluntariados de una persona en actividades sin finalizar (pendientes).
-     * @param auth credenciales de la person.
+     * @param user usuario autenticado que realiza la petición.
      * @param page indicador de paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return listado de sus voluntariados.
      * */
     @GetMapping("/me")
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
-    public ResponseEntity<?> getMyPending(final Authentication auth,
-                                          @RequestParam(defaultValue = "0") int page){
-        var volunteering = volunteeringService.getMyPendingVolunteering(auth, page);
+    public ResponseEntity<?> getMyPending(@CurrentUser final User user,
+                                          @RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(volunteeringService.getMyPendingVolunteering(user, cursor));
+        var volunteering = volunteeringService.getMyPendingVolunteering(user, page, includeTotal);
         return ResponseEntity.ok(volunteering);
     }
 
     /**
      * Función encargada de atender las solicitudes que buscan obtener todos
      * los voluntariados en una actividad en concreto.
-     * @param auth credenciales
+     * @param user usuario autenticado que realiza la petición.
      * @param activityId activityId de la actividad.
      * @param page indicador de paginación.
+     * @param cursor cursor de la página siguiente para paginar por keyset. Vacío para
+     *               la primera página; si se omite se pagina por número de página.
+     * @param includeTotal incluye el total de elementos y de páginas. Solo aplica a la
+     *                   paginación por número de página.
      * @return listado de los voluntariados de dicha actividad.
      * */
     @GetMapping("InActivity")
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
-    public ResponseEntity<?> getVolunteeringForAnActivity(final Authentication auth,
+    public ResponseEntity<?> getVolunteeringForAnActivity(@CurrentUser final User user,
                                                           @RequestParam(defaultValue = "0") long activityId,
-                                                          @RequestParam(defaultValue = "0") int page){
-        var volunteering = volunteeringService.getVolunteeringForAnActivity(auth, activityId, page);
+                                                          @RequestParam(defaultValue = "0") int page,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "false") boolean includeTotal){
+        if(cursor != null)
+            return ResponseEntity.ok(volunteeringService.getVolunteeringForAnActivity(user, activityId, cursor));
+        var volunteering = volunteeringService.getVolunteeringForAnActivity(user, activityId, page, includeTotal);
         return ResponseEntity.ok(volunteering);
     }
 
@@ -78,9 +95,9 @@ public class VolunteeringController {
      * */
     @PostMapping("/multiple")
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
-    public ResponseEntity<?> postMultipleVolunteering(final Authentication auth,
+    public ResponseEntity<?> postMultipleVolunteering(@CurrentUser final User user,
                                                       @Valid @RequestBody VolunteeringWrapperDTO dto){
-        var activityId = volunteeringService.createVolunteering(auth, dto);
+        var activityId = volunteeringService.createVolunteering(user, dto);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath()
                 .path("/volunteering/InActivity")
@@ -98,9 +115,9 @@ public class VolunteeringController {
      * */
     @PostMapping
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
-    public ResponseEntity<?> postVolunteering(final Authentication auth,
+    public ResponseEntity<?> postVolunteering(@CurrentUser final User user,
                                               @Valid @RequestBody BaseVolunteeringRegisterDTO dto){
-        var volunteering = volunteeringService.createMyVolunteering(auth, dto);
+        var volunteering = volunteeringService.createMyVolunteering(user, dto);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentContextPath()
                 .path("/volunteering")
@@ -127,14 +144,14 @@ public class VolunteeringController {
     /**
      * Función encargada de eliminar un voluntariado.
      * @param id identificador del voluntariado a dar de bajo.
-     * @param auth credenciales del usuario.
+     * @param user usuario autenticado que realiza la petición.
      * @return código 204. Éxito sin contenido que retornar.
      * */
     @DeleteMapping
     @PreAuthorize("hasAnyAuthority('ROLE_MENTOR', 'ROLE_ADMIN')")
     public ResponseEntity<?> deleteVolunteering(@RequestParam(defaultValue = "0") long id,
-                                                final Authentication auth){
-        volunteeringService.deleteVolunteering(id, auth);
+                                                @CurrentUser final User user){
+        volunteeringService.deleteVolunteering(id, user);
         return ResponseEntity.noContent().build();
     }
 
@@ -0,0 +1,9 @@
+package com.UNED.APIDataMujer.dto;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        boolean hasNext
+) { }
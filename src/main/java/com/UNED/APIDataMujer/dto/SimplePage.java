@@ -4,7 +4,8 @@ import java.util.List;
 
 public record SimplePage<T>(
     List<T> content,
-    long totalElements,
-    int totalPages,
-    int currentPage
+    Long totalElements,
+    Integer totalPages,
+    int currentPage,
+    boolean hasNext
 ) { }
@@ -0,0 +1,12 @@
+package com.UNED.APIDataMujer.dto.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AffiliatePaymentRow(
+        long userId,
+        String username,
+        LocalDateTime lastPaymentDate,
+        BigDecimal totalPaid,
+        boolean isAffiliate
+) { }
@@ -0,0 +1,9 @@
+package com.UNED.APIDataMujer.dto.projection;
+
+import java.time.LocalDateTime;
+
+public record ShiftRow(
+        long userId,
+        LocalDateTime startShift,
+        LocalDateTime endShift
+) { }
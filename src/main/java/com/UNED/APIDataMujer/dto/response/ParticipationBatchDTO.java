@@ -0,0 +1,9 @@
+package com.UNED.APIDataMujer.dto.response;
+
+import java.util.List;
+
+public record ParticipationBatchDTO(
+        long activityId,
+        long created,
+        List<ParticipationResultDTO> results
+) { }
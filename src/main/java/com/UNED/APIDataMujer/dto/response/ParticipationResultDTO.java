@@ -0,0 +1,9 @@
+package com.UNED.APIDataMujer.dto.response;
+
+import com.UNED.APIDataMujer.enums.RegistrationResult;
+
+public record ParticipationResultDTO(
+        String username,
+        RegistrationResult result,
+        Long participationId
+) { }
@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -20,16 +22,23 @@ import java.time.LocalDate;
 public class Participation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "participationIds")
+    @TableGenerator(name = "participationIds", table = "TBDMSISIdentificadores",
+            pkColumnName = "Tabla", valueColumnName = "SiguienteId",
+            pkColumnValue = "TBDMRELAcciones", allocationSize = 50)
     @Column(name = "Id")
     private long id;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ActividadesId", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Activity activity;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "UsuariosId", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
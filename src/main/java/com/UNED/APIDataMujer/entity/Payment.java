@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -23,11 +25,16 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "paymentIds")
+    @TableGenerator(name = "paymentIds", table = "TBDMSISIdentificadores",
+            pkColumnName = "Tabla", valueColumnName = "SiguienteId",
+            pkColumnValue = "TBDMDETPagos", allocationSize = 50)
     @Column(name = "Id")
     private long id;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "UsuariosId", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
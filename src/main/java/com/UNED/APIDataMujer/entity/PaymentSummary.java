@@ -0,0 +1,38 @@
+package com.UNED.APIDataMujer.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "TBDMDETResumenPagos")
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+public class PaymentSummary {
+
+    @Id
+    @Column(name = "UsuariosId")
+    private long userId;
+
+    @Column(name = "CantidadPagados", nullable = false)
+    private long paidCount;
+
+    @Column(name = "TotalPagado", nullable = false, precision = 12, scale = 2)
+    private BigDecimal paidTotal;
+
+    @Column(name = "TotalMensualidades", nullable = false, precision = 12, scale = 2)
+    private BigDecimal monthlyTotal;
+
+    @Column(name = "UltimaMensualidad", columnDefinition = "DATETIME")
+    private LocalDateTime lastMonthlyPayment;
+
+    @Column(name = "VencimientoAfiliacion", columnDefinition = "DATETIME")
+    private LocalDateTime affiliateExpiration;
+}
@@ -5,7 +5,11 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "TBDMDETTokens")
@@ -20,8 +24,8 @@ public class Token {
     @Column(name = "Id")
     private long id;
 
-    @Column(name = "Token", nullable = false)
-    private String token;
+    @Column(name = "TokenHash", length = 64, nullable = false, unique = true)
+    private String tokenHash;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "TipoToken", nullable = false)
@@ -33,7 +37,12 @@ public class Token {
     @Column(name = "EstaExpirado", nullable = false)
     private boolean expired;
 
-    @ManyToOne
+    @Column(name = "FechaExpiracion", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "UsuariosId", nullable = false)
     private User user;
 }
@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -24,7 +26,9 @@ public class User {
     @Column(name = "Id")
     private long id;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "PersonasId", unique = true, nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Person person;
@@ -35,6 +39,7 @@ public class User {
     @Column(name = "Email", nullable = false, unique = true)
     private String email;
 
+    @ToString.Exclude
     @Column(name = "Contrasena", nullable = false)
     private String password;
 
@@ -53,4 +58,7 @@ public class User {
 
     @Column(name = "EsAfiliado", nullable = false)
     private boolean isAffiliate;
+
+    @Column(name = "EpocaToken", nullable = false)
+    private long tokenEpoch;
 }
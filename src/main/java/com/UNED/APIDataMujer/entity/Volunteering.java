@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
@@ -19,16 +21,23 @@ import java.time.LocalDateTime;
 public class Volunteering {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "volunteeringIds")
+    @TableGenerator(name = "volunteeringIds", table = "TBDMSISIdentificadores",
+            pkColumnName = "Tabla", valueColumnName = "SiguienteId",
+            pkColumnValue = "TBDMRELVoluntariados", allocationSize = 50)
     @Column(name = "Id")
     private long id;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ActividadesId", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private Activity activity;
 
-    @ManyToOne
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "UsuariosId", nullable = false)
     @OnDelete(action = OnDeleteAction.CASCADE)
     private User user;
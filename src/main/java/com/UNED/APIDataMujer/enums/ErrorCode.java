@@ -0,0 +1,42 @@
+package com.UNED.APIDataMujer.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Catálogo de errores fijos emitidos por los filtros de seguridad. Su cuerpo JSON se
+ * serializa una única vez en ErrorResponseWriter.
+ * @author glunah2001
+ * */
+@Getter
+@RequiredArgsConstructor
+public enum ErrorCode {
+    TOKEN_MALFORMED(HttpStatus.UNAUTHORIZED,
+            "Acceso no autorizado: formato de token inválido"),
+    TOKEN_INVALID(HttpStatus.UNAUTHORIZED,
+            "Acceso no autorizado: el token puede estar corrupto o ser inválido."),
+    TOKEN_INACTIVE(HttpStatus.UNAUTHORIZED,
+            "Acceso no autorizado: el token ya no es válido."),
+    TOKEN_USER_NOT_FOUND(HttpStatus.UNAUTHORIZED,
+            "Acceso no autorizado: el usuario indicado en el token no existe en la base de datos."),
+    TOKEN_USER_MISMATCH(HttpStatus.UNAUTHORIZED,
+            "Acceso no autorizado: el token ya no es válido para este usuario."),
+    CLIENT_MALFORMED(HttpStatus.FORBIDDEN,
+            "Acceso no autorizado: formato de cliente inválido"),
+    CLIENT_UNKNOWN(HttpStatus.FORBIDDEN,
+            "Acceso no autorizado: Cliente inválido"),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS,
+            "Ha realizado demasiadas solicitudes. Intente nuevamente más tarde."),
+    SECURITY_BAD_REQUEST(HttpStatus.BAD_REQUEST,
+            "Usted no tiene los permisos de acceso necesarios para realizar esta operación."),
+    SECURITY_UNAUTHORIZED(HttpStatus.UNAUTHORIZED,
+            "Usted no tiene los permisos de acceso necesarios para realizar esta operación."),
+    SECURITY_FORBIDDEN(HttpStatus.FORBIDDEN,
+            "Usted no tiene los permisos de acceso necesarios para realizar esta operación."),
+    SECURITY_NOT_FOUND(HttpStatus.NOT_FOUND,
+            "Usted no tiene los permisos de acceso necesarios para realizar esta operación.");
+
+    private final HttpStatus status;
+    private final String message;
+}
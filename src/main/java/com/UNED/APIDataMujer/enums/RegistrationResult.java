@@ -0,0 +1,7 @@
+package com.UNED.APIDataMujer.enums;
+
+public enum RegistrationResult {
+    CREATED,
+    DUPLICATE,
+    UNKNOWN_USER
+}
@@ -2,6 +2,6 @@ package com.UNED.APIDataMujer.exception;
 
 public class BusinessValidationException extends RuntimeException {
     public BusinessValidationException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.AuthenticationException;
@@ -107,6 +108,46 @@ public class GlobalExceptionHandler {
                 .body(error);
     }
 
+    /**
+     * Función encargada de manejar la excepción personalizada ServiceOverloaded. Estas se emiten
+     * cuando el pool de hash de contraseñas se encuentra saturado.
+     * @param ex la excepción en cuestión.
+     * @return un dto. Con los detalles del error y la cabecera Retry-After.
+     * */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloaded(ServiceOverloadedException ex, HttpServletRequest request){
+        ApiError error = apiErrorMapper.toDto(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Función encargada de manejar la excepción personalizada RateLimitExceeded. Estas se emiten
+     * cuando un usuario supera el límite de intentos de una operación.
+     * @param ex la excepción en cuestión.
+     * @return un dto. Con los detalles del error y la cabecera Retry-After.
+     * */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ApiError> handleRateLimitExceeded(RateLimitExceededException ex, HttpServletRequest request){
+        ApiError error = apiErrorMapper.toDto(
+                HttpStatus.TOO_MANY_REQUESTS,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     /**
      * Función encargada de manejar excepciones IllegalArgument.
      * @param ex la excepción en cuestión.
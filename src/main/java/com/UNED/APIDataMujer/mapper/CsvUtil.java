@@ -0,0 +1,41 @@
+package com.UNED.APIDataMujer.mapper;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Clase utilitaria para escribir filas CSV según RFC 4180. Además, neutraliza los campos
+ * que una hoja de cálculo interpretaría como fórmula (CSV injection).
+ * @author glunah2001
+ * */
+public class CsvUtil {
+
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    /**
+     * Función principal. Construye una fila CSV con cada campo escapado.
+     * @param fields valores de la fila. Un valor NULL se escribe como campo vacío.
+     * @return fila CSV sin salto de línea final.
+     * */
+    public static String row(String... fields){
+        return Arrays.stream(fields)
+                .map(CsvUtil::field)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Función que escapa un campo. Si empieza con un carácter de fórmula se le antepone
+     * una comilla simple; si contiene comas, comillas o saltos de línea se encierra entre
+     * comillas dobles y las comillas internas se duplican.
+     * @param value valor del campo.
+     * @return campo listo para escribirse en la fila.
+     * */
+    public static String field(String value){
+        if(value == null || value.isEmpty()) return "";
+
+        String safe = FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if(safe.chars().noneMatch(c -> c == ',' || c == '"' || c == '\n' || c == '\r'))
+            return safe;
+        return '"' + safe.replace("\"", "\"\"") + '"';
+    }
+}
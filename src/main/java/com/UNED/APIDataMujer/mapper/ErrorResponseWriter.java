@@ -0,0 +1,124 @@
+package com.UNED.APIDataMujer.mapper;
+
+import com.UNED.APIDataMujer.enums.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Clase encargada de escribir respuestas de error desde los filtros de seguridad sin
+ * construir ni serializar un ApiError en cada rechazo. Las partes fijas del JSON (estado,
+ * error y mensaje) se serializan una única vez y en cada respuesta solo se insertan la
+ * fecha y la ruta. El JSON resultante mantiene el formato de ApiError.
+ * @author glunah2001
+ * @see ErrorCode
+ * */
+@Component
+@RequiredArgsConstructor
+public class ErrorResponseWriter {
+
+    /**
+     * Segmentos pre-serializados de una respuesta de error.
+     * @param status estado HTTP de la respuesta.
+     * @param prefix JSON previo a la fecha.
+     * @param middle JSON entre la fecha y la ruta.
+     * @param suffix JSON posterior a la ruta.
+     * */
+    public record PreparedError(int status, byte[] prefix, byte[] middle, byte[] suffix) { }
+
+    private static final byte[] QUOTE = {'"'};
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<ErrorCode, PreparedError> catalog = new EnumMap<>(ErrorCode.class);
+
+    /**
+     * Función de inicialización. Serializa las partes fijas de todo el catálogo.
+     * */
+    @PostConstruct
+    void init(){
+        for(ErrorCode code : ErrorCode.values())
+            catalog.put(code, prepare(code.getStatus(), code.getMessage()));
+    }
+
+    /**
+     * Función que serializa las partes fijas de un error que no pertenece al catálogo
+     * (p. ej. mensajes que dependen de la configuración). Debe invocarse una sola vez y
+     * reutilizar su resultado.
+     * @param status estado HTTP del error.
+     * @param message mensaje del error.
+     * @return segmentos pre-serializados.
+     * */
+    public PreparedError prepare(HttpStatus status, String message){
+        try{
+            final String prefix = "{\"timestamp\":\"";
+            final String middle = "\",\"status\":" + status.value() +
+                    ",\"error\":" + objectMapper.writeValueAsString(status.getReasonPhrase()) +
+                    ",\"message\":" + objectMapper.writeValueAsString(message) +
+                    ",\"path\":";
+            final String suffix = ",\"details\":null}";
+            return new PreparedError(status.value(),
+                    prefix.getBytes(StandardCharsets.UTF_8),
+                    middle.getBytes(StandardCharsets.UTF_8),
+                    suffix.getBytes(StandardCharsets.UTF_8));
+        }catch (JsonProcessingException ex){
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Función que escribe un error del catálogo en la respuesta.
+     * @param response respuesta a enviar al cliente.
+     * @param code código del error.
+     * @param path ruta de endpoint en la cual ocurre el error.
+     * */
+    public void write(HttpServletResponse response, ErrorCode code, String path) throws IOException {
+        write(response, catalog.get(code), path);
+    }
+
+    /**
+     * Función que escribe un error pre-serializado en la respuesta.
+     * @param response respuesta a enviar al cliente.
+     * @param error segmentos pre-serializados del error.
+     * @param path ruta de endpoint en la cual ocurre el error.
+     * */
+    public void write(HttpServletResponse response, PreparedError error, String path) throws IOException {
+        final byte[] timestamp = DateTimeFormatter.ISO_LOCAL_DATE_TIME
+                .format(LocalDateTime.now())
+                .getBytes(StandardCharsets.US_ASCII);
+        final byte[] escapedPath = path != null ?
+                JsonStringEncoder.getInstance().quoteAsUTF8(path) : null;
+
+        response.setStatus(error.status());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        final var out = response.getOutputStream();
+        out.write(error.prefix());
+        out.write(timestamp);
+        out.write(error.middle());
+        if(escapedPath != null){
+            out.write(QUOTE);
+            out.write(escapedPath);
+            out.write(QUOTE);
+        }else{
+            out.write(NULL);
+        }
+        out.write(error.suffix());
+    }
+}
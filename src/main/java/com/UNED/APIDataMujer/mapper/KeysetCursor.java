@@ -0,0 +1,140 @@
+package com.UNED.APIDataMujer.mapper;
+
+import com.UNED.APIDataMujer.exception.BusinessValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor opaco de paginación por keyset. Guarda el valor de la columna de ordenamiento
+ * de la última fila entregada y su id como desempate, codificados en Base64 URL para
+ * viajar como parámetro de consulta.
+ * @param key valor de la columna de ordenamiento de la última fila.
+ * @param id identificador de la última fila.
+ * @author AHKolodin
+ * */
+public record KeysetCursor(String key, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Función de fábrica para cursores ordenados únicamente por id.
+     * @param id identificador de la última fila.
+     * @return cursor.
+     * */
+    public static KeysetCursor of(long id){
+        return new KeysetCursor("", id);
+    }
+
+    /**
+     * Función de fábrica para cursores cuya columna de ordenamiento es una fecha.
+     * @param key fecha de la última fila.
+     * @param id identificador de la última fila.
+     * @return cursor.
+     * */
+    public static KeysetCursor of(LocalDate key, long id){
+        return new KeysetCursor(key.toString(), id);
+    }
+
+    /**
+     * Función de fábrica para cursores cuya columna de ordenamiento es un booleano.
+     * @param key valor booleano de la última fila.
+     * @param id identificador de la última fila.
+     * @return cursor.
+     * */
+    public static KeysetCursor of(boolean key, long id){
+        return new KeysetCursor(String.valueOf(key), id);
+    }
+
+    /**
+     * Función de fábrica para cursores cuya columna de ordenamiento es una fecha y hora.
+     * @param key fecha y hora de la última fila.
+     * @param id identificador de la última fila.
+     * @return cursor.
+     * */
+    public static KeysetCursor of(LocalDateTime key, long id){
+        return new KeysetCursor(key.toString(), id);
+    }
+
+    /**
+     * Función que codifica el cursor para enviarlo al cliente.
+     * @return cursor opaco.
+     * */
+    public String encode(){
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Función que decodifica un cursor recibido del cliente, tratando un cursor vacío como
+     * la solicitud de la primera página.
+     * @param cursor cursor opaco. NULL o vacío para la primera página.
+     * @return cursor decodificado o NULL para la primera página.
+     * @throws BusinessValidationException en caso de que el cursor no sea válido.
+     * */
+    public static KeysetCursor decodeOrNull(String cursor){
+        return cursor == null || cursor.isBlank() ? null : decode(cursor);
+    }
+
+    /**
+     * Función que decodifica un cursor recibido del cliente.
+     * @param cursor cursor opaco.
+     * @return cursor decodificado.
+     * @throws BusinessValidationException en caso de que el cursor no sea válido.
+     * */
+    public static KeysetCursor decode(String cursor){
+        try{
+            final var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = raw.lastIndexOf(SEPARATOR);
+            if(separator < 0) throw invalid();
+            return new KeysetCursor(raw.substring(0, separator),
+                    Long.parseLong(raw.substring(separator + 1)));
+        }catch (IllegalArgumentException e){
+            throw invalid();
+        }
+    }
+
+    /**
+     * Función que interpreta la columna de ordenamiento como fecha y hora.
+     * @return fecha y hora de la última fila.
+     * @throws BusinessValidationException en caso de que el cursor no corresponda a una fecha.
+     * */
+    public LocalDateTime dateTimeKey(){
+        try{
+            return LocalDateTime.parse(key);
+        }catch (DateTimeParseException e){
+            throw invalid();
+        }
+    }
+
+    /**
+     * Función que interpreta la columna de ordenamiento como fecha.
+     * @return fecha de la última fila.
+     * @throws BusinessValidationException en caso de que el cursor no corresponda a una fecha.
+     * */
+    public LocalDate dateKey(){
+        try{
+            return LocalDate.parse(key);
+        }catch (DateTimeParseException e){
+            throw invalid();
+        }
+    }
+
+    /**
+     * Función que interpreta la columna de ordenamiento como booleano.
+     * @return valor booleano de la última fila.
+     * @throws BusinessValidationException en caso de que el cursor no corresponda a un booleano.
+     * */
+    public boolean booleanKey(){
+        if("true".equals(key)) return true;
+        if("false".equals(key)) return false;
+        throw invalid();
+    }
+
+    private static BusinessValidationException invalid(){
+        return new BusinessValidationException("El cursor de paginación proporcionado es inválido.");
+    }
+}
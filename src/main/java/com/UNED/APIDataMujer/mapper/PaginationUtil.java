@@ -1,7 +1,8 @@
 package com.UNED.APIDataMujer.mapper;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.function.Function;
@@ -14,20 +15,72 @@ import java.util.function.Function;
 public class PaginationUtil {
 
     /**
-     * Función principal para paginación.
-     * @param page pagina con contenido y metadata.
+     * Función principal para paginación. La porción se consulta con un elemento más que el
+     * tamaño de página, por lo que no requiere un COUNT para saber si hay página siguiente.
+     * @param slice porción con contenido y metadata.
+     * @param totalElements total de elementos. NULL si el cliente no lo solicitó.
      * @param mapper función mapper.
      * @return paginación sencilla para enviar al cliente.
      * */
-    public static <T, R>SimplePage<R> wrapInPage(Page<T> page, Function<T, R> mapper){
-        List<R> dto = page.getContent().stream()
+    public static <T, R>SimplePage<R> wrapInPage(Slice<T> slice, Long totalElements, Function<T, R> mapper){
+        List<R> dto = slice.getContent().stream()
                         .map(mapper)
                         .toList();
         return new SimplePage<>(
                 dto,
-                page.getTotalElements(),
-                page.getTotalPages(),
-                page.getNumber()
+                totalElements,
+                totalPages(totalElements, slice.getSize()),
+                slice.getNumber(),
+                slice.hasNext()
         );
     }
+
+    /**
+     * Función de paginación para resultados que el repositorio ya proyecta en DTO.
+     * @param slice porción con contenido y metadata.
+     * @param totalElements total de elementos. NULL si el cliente no lo solicitó.
+     * @return paginación sencilla para enviar al cliente.
+     * */
+    public static <T>SimplePage<T> wrapInPage(Slice<T> slice, Long totalElements){
+        return new SimplePage<>(
+                slice.getContent(),
+                totalElements,
+                totalPages(totalElements, slice.getSize()),
+                slice.getNumber(),
+                slice.hasNext()
+        );
+    }
+
+    /**
+     * Función de paginación por keyset. Las filas deben consultarse con un elemento más que
+     * el tamaño de página para saber si existe una página siguiente sin contar el total.
+     * @param rows filas recuperadas (hasta size + 1).
+     * @param size tamaño de página.
+     * @param mapper función mapper.
+     * @param cursorOf función que obtiene el cursor de una fila.
+     * @return página con el cursor de la siguiente consulta.
+     * */
+    public static <T, R>CursorPage<R> wrapInCursorPage(List<T> rows, int size,
+                                                       Function<T, R> mapper,
+                                                       Function<T, KeysetCursor> cursorOf){
+        final boolean hasNext = rows.size() > size;
+        final List<T> content = hasNext ? rows.subList(0, size) : rows;
+        final String nextCursor = hasNext ? cursorOf.apply(content.get(size - 1)).encode() : null;
+        return new CursorPage<>(
+                content.stream().map(mapper).toList(),
+                nextCursor,
+                hasNext
+        );
+    }
+
+    /**
+     * Función auxiliar que calcula la cantidad de páginas a partir del total de elementos.
+     * @param totalElements total de elementos. NULL si no se consultó.
+     * @param size tamaño de página.
+     * @return cantidad de páginas o NULL si no se consultó el total.
+     * */
+    private static Integer totalPages(Long totalElements, int size){
+        if(totalElements == null) return null;
+        return (int) ((totalElements + size - 1) / size);
+    }
 }
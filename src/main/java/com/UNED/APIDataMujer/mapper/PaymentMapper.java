@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.mapper;
 
+import com.UNED.APIDataMujer.dto.projection.AffiliatePaymentRow;
 import com.UNED.APIDataMujer.dto.request.PaymentRegisterDTO;
 import com.UNED.APIDataMujer.dto.response.AffiliatesPaymentReportDTO;
 import com.UNED.APIDataMujer.dto.response.PaymentDTO;
@@ -8,9 +9,6 @@ import com.UNED.APIDataMujer.entity.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-
 
 /**
  * Mapper de entidad Payment de entidad a DTO y viceversa.
@@ -58,19 +56,17 @@ public class PaymentMapper {
 
     /**
      * Mapeo a dto. De detalles de pago de varios usuarios afiliados.
-     * @param user usuario en cuestión.
-     * @param lastPaymentDate última fecha de pago.
-     * @param totalPaid total pagado en mensualidades.
+     * @param row fila agregada con la última fecha de pago y el total pagado en
+     *            mensualidades de un usuario.
      * @return dto con la información de pago de un usuario.
      * */
-    public AffiliatesPaymentReportDTO toDto(User user, LocalDateTime lastPaymentDate,
-                                            BigDecimal totalPaid){
+    public AffiliatesPaymentReportDTO toDto(AffiliatePaymentRow row){
         return new AffiliatesPaymentReportDTO(
-                user.getUsername(),
-                lastPaymentDate,
-                lastPaymentDate.plusMonths(1),
-                totalPaid,
-                user.isAffiliate()
+                row.username(),
+                row.lastPaymentDate(),
+                row.lastPaymentDate().plusMonths(1),
+                row.totalPaid(),
+                row.isAffiliate()
         );
     }
 
@@ -3,9 +3,12 @@ package com.UNED.APIDataMujer.mapper;
 import com.UNED.APIDataMujer.entity.Token;
 import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.TokenType;
+import com.UNED.APIDataMujer.security.TokenDigest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+
 /**
  * Mapper para los tokens a entidades a registrar en la bd.
  * @author glunah2001
@@ -16,16 +19,18 @@ public class TokenMapper {
 
     /**
      * Función que mapea datos manualmente a una entidad token a registrar.
-     * @param jjwt cadena de token.
+     * @param jjwt cadena de token. Solo se persiste su digest.
      * @param user usuario al que pertenece el token.
      * @param type tipo de token del que se trata.
+     * @param expiresAt fecha de expiración del token.
      * */
-    public Token toEntity(String jjwt, User user, TokenType type){
+    public Token toEntity(String jjwt, User user, TokenType type, LocalDateTime expiresAt){
         return Token.builder()
-                .token(jjwt)
+                .tokenHash(TokenDigest.of(jjwt))
                 .tokenType(type)
                 .revoked(false)
                 .expired(false)
+                .expiresAt(expiresAt)
                 .user(user)
                 .build();
     }
@@ -1,9 +1,13 @@
 package com.UNED.APIDataMujer.repository;
 
+import com.UNED.APIDataMujer.dto.response.ActivityDTO;
 import com.UNED.APIDataMujer.entity.Activity;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -12,6 +16,29 @@ import java.util.List;
 
 @Repository
 public interface ActivityRepository extends JpaRepository<Activity, Long> {
-    Page<Activity> findByIsFinalizedFalse(Pageable pageable);
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.ActivityDTO(
+            a.id, a.activity, a.description, a.location, a.isOnSite, a.startDate, a.endDate)
+        FROM Activity a
+        WHERE a.isFinalized = false
+        """)
+    Slice<ActivityDTO> findActiveDtos(Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM Activity a WHERE a.isFinalized = false")
+    long countActive();
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.ActivityDTO(
+            a.id, a.activity, a.description, a.location, a.isOnSite, a.startDate, a.endDate)
+        FROM Activity a
+        WHERE a.isFinalized = false
+          AND (:lastStartDate IS NULL OR a.startDate > :lastStartDate
+               OR (a.startDate = :lastStartDate AND a.id > :lastId))
+        ORDER BY a.startDate ASC, a.id ASC
+        """)
+    List<ActivityDTO> findActiveDtosAfter(@Param("lastStartDate") LocalDateTime lastStartDate,
+                                          @Param("lastId") long lastId,
+                                          Limit limit);
+
     List<Activity> findByIsFinalizedFalseAndEndDateBefore(LocalDateTime now);
 }
@@ -1,8 +1,10 @@
 package com.UNED.APIDataMujer.repository;
 
 import com.UNED.APIDataMujer.entity.LegalPerson;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +13,19 @@ import java.util.Optional;
 
 @Repository
 public interface LegalPersonRepository extends JpaRepository<LegalPerson, Long> {
+    @EntityGraph(attributePaths = "person")
+    Optional<LegalPerson> findById(Long id);
+
+    @EntityGraph(attributePaths = "person")
     Optional<LegalPerson> findByLegalId(String legalId);
-    Page<LegalPerson> findByBusinessNameContainingIgnoreCase(String businessName,  Pageable pageable);
+
+    @EntityGraph(attributePaths = "person")
+    Slice<LegalPerson> findByBusinessNameContainingIgnoreCase(String businessName,  Pageable pageable);
+
+    long countByBusinessNameContainingIgnoreCase(String businessName);
+
+    @EntityGraph(attributePaths = "person")
+    List<LegalPerson> findByBusinessNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String businessName,
+                                                                                        long lastId,
+                                                                                        Limit limit);
 }
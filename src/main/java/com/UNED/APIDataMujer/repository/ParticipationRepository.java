@@ -1,22 +1,112 @@
 package com.UNED.APIDataMujer.repository;
 
+import com.UNED.APIDataMujer.dto.response.ParticipationDTO;
 import com.UNED.APIDataMujer.entity.Participation;
 import com.UNED.APIDataMujer.enums.ParticipationState;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
 @Repository
 public interface ParticipationRepository extends JpaRepository<Participation, Long> {
-    Page<Participation> findByActivityId(Long activityId, Pageable pageable);
-    Page<Participation> findByUserIdAndActivityIsFinalizedFalseAndStatusNot(Long userid,
-                                                                            ParticipationState excludedState,
-                                                                            Pageable pageable);
+    @EntityGraph(attributePaths = {"user", "activity"})
+    Optional<Participation> findById(Long id);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.ParticipationDTO(
+            p.id, p.registrationDate, p.startDate, p.endDate, u.username,
+            a.id, a.activity, a.description, a.location, a.isOnSite, a.startDate, a.endDate,
+            p.status)
+        FROM Participation p
+        JOIN p.user u
+        JOIN p.activity a
+        WHERE a.id = :activityId
+        """)
+    Slice<ParticipationDTO> findDtosByActivityId(@Param("activityId") Long activityId, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Participation p WHERE p.activity.id = :activityId")
+    long countByActivityId(@Param("activityId") Long activityId);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.ParticipationDTO(
+            p.id, p.registrationDate, p.startDate, p.endDate, u.username,
+            a.id, a.activity, a.description, a.location, a.isOnSite, a.startDate, a.endDate,
+            p.status)
+        FROM Participation p
+        JOIN p.user u
+        JOIN p.activity a
+        WHERE u.id = :userId AND a.isFinalized = false AND p.status <> :excludedState
+        """)
+    Slice<ParticipationDTO> findActiveDtosByUserId(@Param("userId") Long userId,
+                                                   @Param("excludedState") ParticipationState excludedState,
+                                                   Pageable pageable);
+
+    @Query("""
+        SELECT COUNT(p)
+        FROM Participation p
+        WHERE p.user.id = :userId AND p.activity.isFinalized = false AND p.status <> :excludedState
+        """)
+    long countActiveByUserId(@Param("userId") Long userId,
+                             @Param("excludedState") ParticipationState excludedState);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.ParticipationDTO(
+            p.id, p.registrationDate, p.startDate, p.endDate, u.username,
+            a.id, a.activity, a.description, a.location, a.isOnSite, a.startDate, a.endDate,
+            p.status)
+        FROM Participation p
+        JOIN p.user u
+        JOIN p.activity a
+        WHERE a.id = :activityId
+          AND (:lastRegistrationDate IS NULL OR p.registrationDate > :lastRegistrationDate
+               OR (p.registrationDate = :lastRegistrationDate AND p.id > :lastId))
+        ORDER BY p.registrationDate ASC, p.id ASC
+        """)
+    List<ParticipationDTO> findDtosByActivityIdAfter(@Param("activityId") Long activityId,
+                                                     @Param("lastRegistrationDate") LocalDate lastRegistrationDate,
+                                                     @Param("lastId") long lastId,
+                                                     Limit limit);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.ParticipationDTO(
+            p.id, p.registrationDate, p.startDate, p.endDate, u.username,
+            a.id, a.activity, a.description, a.location, a.isOnSite, a.startDate, a.endDate,
+            p.status)
+        FROM Participation p
+        JOIN p.user u
+        JOIN p.activity a
+        WHERE u.id = :userId AND a.isFinalized = false AND p.status <> :excludedState
+          AND (:lastRegistrationDate IS NULL OR p.registrationDate > :lastRegistrationDate
+               OR (p.registrationDate = :lastRegistrationDate AND p.id > :lastId))
+        ORDER BY p.registrationDate ASC, p.id ASC
+        """)
+    List<ParticipationDTO> findActiveDtosByUserIdAfter(@Param("userId") Long userId,
+                                                       @Param("excludedState") ParticipationState excludedState,
+                                                       @Param("lastRegistrationDate") LocalDate lastRegistrationDate,
+                                                       @Param("lastId") long lastId,
+                                                       Limit limit);
     List<Participation> findByActivityIdAndStatusIn(Long activityId, List<ParticipationState> statuses);
+
+    @Query("""
+        SELECT p.user.id
+        FROM Participation p
+        WHERE p.activity.id = :activityId AND p.status <> :excludedState AND p.user.id IN :userIds
+        """)
+    List<Long> findUserIdsByActivityIdAndStatusNot(@Param("activityId") Long activityId,
+                                                   @Param("userIds") Collection<Long> userIds,
+                                                   @Param("excludedState") ParticipationState excludedState);
+
     boolean existsByUserIdAndActivityIdAndStatusNot(Long userId,
                                                     Long activityId,
                                                     ParticipationState excludedState);
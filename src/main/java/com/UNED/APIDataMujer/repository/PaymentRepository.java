@@ -1,44 +1,87 @@
 package com.UNED.APIDataMujer.repository;
 
+import com.UNED.APIDataMujer.dto.response.PaymentDTO;
 import com.UNED.APIDataMujer.entity.Payment;
-import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.Classification;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    Page<Payment> findByUser(User user, Pageable pageable);
-    Page<Payment> findByIsPaid(boolean isPaid, Pageable pageable);
-    boolean existsByUserAndIsPaidTrue(User user);
-    Optional<Payment> findTopByUserAndClassificationAndIsPaidTrueOrderByPaymentDateDesc(
-            User user, Classification classification);
+    @EntityGraph(attributePaths = "user")
+    Optional<Payment> findById(Long id);
 
     @Query("""
-       SELECT p.user
-       FROM Payment p
-       WHERE p.classification = :classification AND p.isPaid = true
-       GROUP BY p.user
-       ORDER BY MAX(p.paymentDate) DESC, p.user.isAffiliate ASC
-       """)
-    Page<User> findUsersWithPaidMonthlyPaymentsPaged(
-            @Param("classification") Classification classification,
-            Pageable pageable);
+        SELECT new com.UNED.APIDataMujer.dto.response.PaymentDTO(
+            p.id, u.username, p.description, p.classification, p.method,
+            p.paymentDate, p.isPaid, p.totalAmount)
+        FROM Payment p
+        JOIN p.user u
+        WHERE u.id = :userId
+        """)
+    Slice<PaymentDTO> findDtosByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Payment p WHERE p.user.id = :userId")
+    long countByUserId(@Param("userId") Long userId);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.PaymentDTO(
+            p.id, u.username, p.description, p.classification, p.method,
+            p.paymentDate, p.isPaid, p.totalAmount)
+        FROM Payment p
+        JOIN p.user u
+        WHERE p.isPaid = :isPaid
+        """)
+    Slice<PaymentDTO> findDtosByIsPaid(@Param("isPaid") boolean isPaid, Pageable pageable);
+
+    @Query("SELECT COUNT(p) FROM Payment p WHERE p.isPaid = :isPaid")
+    long countByIsPaid(@Param("isPaid") boolean isPaid);
 
     @Query("""
-            SELECT COALESCE(SUM(p.totalAmount), 0)
-            FROM Payment p
-            WHERE p.user = :user AND p.isPaid = true AND p.classification = :classification
-            """)
-    BigDecimal sumPaidMonthlyByUser(@Param("user") User user,
-                                    @Param("classification") Classification classification);
+        SELECT new com.UNED.APIDataMujer.dto.response.PaymentDTO(
+            p.id, u.username, p.description, p.classification, p.method,
+            p.paymentDate, p.isPaid, p.totalAmount)
+        FROM Payment p
+        JOIN p.user u
+        WHERE u.id = :userId
+          AND (:lastIsPaid IS NULL
+               OR (p.isPaid = :lastIsPaid AND p.id > :lastId)
+               OR (:lastIsPaid = false AND p.isPaid = true))
+        ORDER BY p.isPaid ASC, p.id ASC
+        """)
+    List<PaymentDTO> findDtosByUserIdAfter(@Param("userId") Long userId,
+                                           @Param("lastIsPaid") Boolean lastIsPaid,
+                                           @Param("lastId") long lastId,
+                                           Limit limit);
 
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.PaymentDTO(
+            p.id, u.username, p.description, p.classification, p.method,
+            p.paymentDate, p.isPaid, p.totalAmount)
+        FROM Payment p
+        JOIN p.user u
+        WHERE p.isPaid = :isPaid AND p.id > :lastId
+        ORDER BY p.id ASC
+        """)
+    List<PaymentDTO> findDtosByIsPaidAfter(@Param("isPaid") boolean isPaid,
+                                           @Param("lastId") long lastId,
+                                           Limit limit);
+
+    @Query("""
+        SELECT MAX(p.paymentDate)
+        FROM Payment p
+        WHERE p.user.id = :userId AND p.classification = :classification AND p.isPaid = true
+        """)
+    Optional<LocalDateTime> findLastPaidDate(@Param("userId") long userId,
+                                             @Param("classification") Classification classification);
 }
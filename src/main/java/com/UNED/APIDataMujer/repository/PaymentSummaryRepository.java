@@ -0,0 +1,52 @@
+package com.UNED.APIDataMujer.repository;
+
+import com.UNED.APIDataMujer.dto.projection.AffiliatePaymentRow;
+import com.UNED.APIDataMujer.entity.PaymentSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentSummaryRepository extends JpaRepository<PaymentSummary, Long> {
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO TBDMDETResumenPagos " +
+            "(UsuariosId, CantidadPagados, TotalPagado, TotalMensualidades) VALUES (:userId, 0, 0, 0)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PaymentSummary s WHERE s.userId = :userId")
+    Optional<PaymentSummary> findForUpdate(@Param("userId") long userId);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.projection.AffiliatePaymentRow(
+            u.id, u.username, s.lastMonthlyPayment, s.monthlyTotal, u.isAffiliate)
+        FROM PaymentSummary s
+        JOIN User u ON u.id = s.userId
+        WHERE s.lastMonthlyPayment IS NOT NULL
+        ORDER BY s.lastMonthlyPayment DESC, s.userId ASC
+        """)
+    List<AffiliatePaymentRow> findReportFirst(Limit limit);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.projection.AffiliatePaymentRow(
+            u.id, u.username, s.lastMonthlyPayment, s.monthlyTotal, u.isAffiliate)
+        FROM PaymentSummary s
+        JOIN User u ON u.id = s.userId
+        WHERE s.lastMonthlyPayment < :lastPaymentDate
+           OR (s.lastMonthlyPayment = :lastPaymentDate AND s.userId > :lastUserId)
+        ORDER BY s.lastMonthlyPayment DESC, s.userId ASC
+        """)
+    List<AffiliatePaymentRow> findReportAfter(@Param("lastPaymentDate") LocalDateTime lastPaymentDate,
+                                              @Param("lastUserId") long lastUserId,
+                                              Limit limit);
+}
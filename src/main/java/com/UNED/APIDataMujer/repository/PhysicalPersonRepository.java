@@ -1,8 +1,10 @@
 package com.UNED.APIDataMujer.repository;
 
 import com.UNED.APIDataMujer.entity.PhysicalPerson;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,12 +15,46 @@ import java.util.Optional;
 
 @Repository
 public interface PhysicalPersonRepository extends JpaRepository<PhysicalPerson, Long> {
+    @EntityGraph(attributePaths = "person")
+    Optional<PhysicalPerson> findById(Long id);
+
+    @EntityGraph(attributePaths = "person")
     Optional<PhysicalPerson> findByNationalId(String nationalId);
-    Page<PhysicalPerson> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    @EntityGraph(attributePaths = "person")
+    Slice<PhysicalPerson> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    long countByNameContainingIgnoreCase(String name);
+
+    @EntityGraph(attributePaths = "person")
     @Query("""
         SELECT p FROM PhysicalPerson p
         WHERE LOWER(p.firstSurname) LIKE LOWER(CONCAT('%', :surname, '%'))
            OR LOWER(p.secondSurname) LIKE LOWER(CONCAT('%', :surname, '%'))
     """)
-    Page<PhysicalPerson> findByAnySurnameContainingIgnoreCase(@Param("surname") String surname, Pageable pageable);
+    Slice<PhysicalPerson> findByAnySurnameContainingIgnoreCase(@Param("surname") String surname, Pageable pageable);
+
+    @Query("""
+        SELECT COUNT(p) FROM PhysicalPerson p
+        WHERE LOWER(p.firstSurname) LIKE LOWER(CONCAT('%', :surname, '%'))
+           OR LOWER(p.secondSurname) LIKE LOWER(CONCAT('%', :surname, '%'))
+    """)
+    long countByAnySurnameContainingIgnoreCase(@Param("surname") String surname);
+
+    @EntityGraph(attributePaths = "person")
+    List<PhysicalPerson> findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String name,
+                                                                                   long lastId,
+                                                                                   Limit limit);
+
+    @EntityGraph(attributePaths = "person")
+    @Query("""
+        SELECT p FROM PhysicalPerson p
+        WHERE (LOWER(p.firstSurname) LIKE LOWER(CONCAT('%', :surname, '%'))
+           OR LOWER(p.secondSurname) LIKE LOWER(CONCAT('%', :surname, '%')))
+          AND p.id > :lastId
+        ORDER BY p.id ASC
+    """)
+    List<PhysicalPerson> findByAnySurnameContainingIgnoreCaseAfter(@Param("surname") String surname,
+                                                                   @Param("lastId") long lastId,
+                                                                   Limit limit);
 }
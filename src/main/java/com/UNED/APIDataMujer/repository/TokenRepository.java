@@ -1,17 +1,42 @@
 package com.UNED.APIDataMujer.repository;
 
 import com.UNED.APIDataMujer.entity.Token;
+import com.UNED.APIDataMujer.enums.TokenType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface TokenRepository extends JpaRepository<Token, Long> {
-    @Query("SELECT t FROM Token t WHERE t.user.id = :userId AND (t.expired = false OR t.revoked = false)")
-    List<Token> findAllValidIsFalseOrRevokedIsFalseByUserId(long userId);
+    @Modifying
+    @Query("UPDATE Token t SET t.revoked = true, t.expired = true, t.expiresAt = :now " +
+            "WHERE t.user.id = :userId AND t.revoked = false")
+    int revokeAllActiveByUserId(@Param("userId") long userId, @Param("now") LocalDateTime now);
 
-    Optional<Token> findByToken(String token);
+    @Modifying
+    @Query("UPDATE Token t SET t.revoked = true, t.expired = true, t.expiresAt = :now " +
+            "WHERE t.tokenHash = :tokenHash")
+    int revokeByTokenHash(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    Optional<Token> findByTokenHash(String tokenHash);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<Token> findWithUserByTokenHash(String tokenHash);
+
+    boolean existsByUserIdAndTokenTypeAndRevokedFalseAndExpiresAtAfter(long userId,
+                                                                      TokenType tokenType,
+                                                                      LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM TBDMDETTokens WHERE FechaExpiracion < :cutoff LIMIT :chunkSize",
+            nativeQuery = true)
+    int deleteExpiredChunk(@Param("cutoff") LocalDateTime cutoff, @Param("chunkSize") int chunkSize);
 }
@@ -2,16 +2,56 @@ package com.UNED.APIDataMujer.repository;
 
 import com.UNED.APIDataMujer.entity.Person;
 import com.UNED.APIDataMujer.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @EntityGraph(attributePaths = "person")
+    Optional<User> findById(Long id);
+
+    @EntityGraph(attributePaths = "person")
     Optional<User> findByUsername(String username);
+
     Optional<User> findByEmail(String email);
+
+    @EntityGraph(attributePaths = "person")
     Optional<User> findByPerson(Person person);
-    List<User> findByIsAffiliateTrue();
+
+    List<User> findByPersonIdIn(Collection<Long> personIds);
+
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+
+    @Query("SELECT u.tokenEpoch FROM User u WHERE u.id = :userId")
+    Optional<Long> findTokenEpochById(@Param("userId") long userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenEpoch = u.tokenEpoch + 1 WHERE u.id = :userId")
+    int incrementTokenEpoch(@Param("userId") long userId);
+
+    @Modifying
+    @Query("""
+        UPDATE User u SET u.isAffiliate = false
+        WHERE u.isAffiliate = true
+          AND NOT EXISTS (
+              SELECT s.userId FROM PaymentSummary s
+              WHERE s.userId = u.id AND s.affiliateExpiration > :now)
+        """)
+    int expireAffiliates(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
 }
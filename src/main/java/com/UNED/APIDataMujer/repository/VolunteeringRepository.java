@@ -1,20 +1,89 @@
 package com.UNED.APIDataMujer.repository;
 
+import com.UNED.APIDataMujer.dto.projection.ShiftRow;
+import com.UNED.APIDataMujer.dto.response.VolunteeringDTO;
 import com.UNED.APIDataMujer.entity.Volunteering;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface VolunteeringRepository extends JpaRepository<Volunteering, Long> {
-    Page<Volunteering> findByUserIdAndActivityIsFinalizedFalse(Long userId, Pageable pageable);
-    Page<Volunteering> findByActivityId(Long id, Pageable pageable);
+    @EntityGraph(attributePaths = {"user", "activity"})
+    Optional<Volunteering> findById(Long id);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.VolunteeringDTO(
+            v.id, u.username, a.id, a.activity, a.description, a.location, a.isOnSite,
+            v.startShift, v.endShift, v.activityRole)
+        FROM Volunteering v
+        JOIN v.user u
+        JOIN v.activity a
+        WHERE u.id = :userId AND a.isFinalized = false
+        """)
+    Slice<VolunteeringDTO> findPendingDtosByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("""
+        SELECT COUNT(v)
+        FROM Volunteering v
+        WHERE v.user.id = :userId AND v.activity.isFinalized = false
+        """)
+    long countPendingByUserId(@Param("userId") Long userId);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.VolunteeringDTO(
+            v.id, u.username, a.id, a.activity, a.description, a.location, a.isOnSite,
+            v.startShift, v.endShift, v.activityRole)
+        FROM Volunteering v
+        JOIN v.user u
+        JOIN v.activity a
+        WHERE a.id = :activityId
+        """)
+    Slice<VolunteeringDTO> findDtosByActivityId(@Param("activityId") Long activityId, Pageable pageable);
+
+    @Query("SELECT COUNT(v) FROM Volunteering v WHERE v.activity.id = :activityId")
+    long countByActivityId(@Param("activityId") Long activityId);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.VolunteeringDTO(
+            v.id, u.username, a.id, a.activity, a.description, a.location, a.isOnSite,
+            v.startShift, v.endShift, v.activityRole)
+        FROM Volunteering v
+        JOIN v.user u
+        JOIN v.activity a
+        WHERE u.id = :userId AND a.isFinalized = false
+          AND (:lastStartShift IS NULL OR v.startShift > :lastStartShift
+               OR (v.startShift = :lastStartShift AND v.id > :lastId))
+        ORDER BY v.startShift ASC, v.id ASC
+        """)
+    List<VolunteeringDTO> findPendingDtosByUserIdAfter(@Param("userId") Long userId,
+                                                       @Param("lastStartShift") LocalDateTime lastStartShift,
+                                                       @Param("lastId") long lastId,
+                                                       Limit limit);
+
+    @Query("""
+        SELECT new com.UNED.APIDataMujer.dto.response.VolunteeringDTO(
+            v.id, u.username, a.id, a.activity, a.description, a.location, a.isOnSite,
+            v.startShift, v.endShift, v.activityRole)
+        FROM Volunteering v
+        JOIN v.user u
+        JOIN v.activity a
+        WHERE a.id = :activityId AND v.id > :lastId
+        ORDER BY v.id ASC
+        """)
+    List<VolunteeringDTO> findDtosByActivityIdAfter(@Param("activityId") Long activityId,
+                                                    @Param("lastId") long lastId,
+                                                    Limit limit);
 
     @Query("""
         SELECT CASE WHEN COUNT(v) > 0 THEN true ELSE false END
@@ -46,6 +115,22 @@ public interface VolunteeringRepository extends JpaRepository<Volunteering, Long
                                             @Param("startShift") LocalDateTime startShift,
                                             @Param("endShift") LocalDateTime endShift);
 
+    @Query("""
+    SELECT new com.UNED.APIDataMujer.dto.projection.ShiftRow(v.user.id, v.startShift, v.endShift)
+    FROM Volunteering v
+    JOIN v.activity a
+    JOIN Volunteering org ON org.activity.id = a.id AND org.isMainOrganizer = true
+    WHERE v.user.id IN :userIds
+      AND a.isFinalized = false
+      AND v.startShift < :to
+      AND v.endShift > :from
+      AND org.user.id = :organizerId
+    """)
+    List<ShiftRow> findShiftsWithSameOrganizer(@Param("userIds") Collection<Long> userIds,
+                                               @Param("organizerId") Long organizerId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
+
     @Query("""
     SELECT v.user.id
     FROM Volunteering v
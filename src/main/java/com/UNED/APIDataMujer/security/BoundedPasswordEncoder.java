@@ -0,0 +1,135 @@
+package com.UNED.APIDataMujer.security;
+
+import com.UNED.APIDataMujer.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Codificador de contraseñas que ejecuta el hash (BCrypt) en un pool de hilos dedicado y
+ * acotado, en lugar de hacerlo en los hilos de Tomcat. Si la cola del pool está llena o el
+ * hash no termina a tiempo se arroja ServiceOverloadedException, que el cliente recibe
+ * como un 503 con cabecera Retry-After.
+ * @author glunah2001
+ * @see ServiceOverloadedException
+ * */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final String OVERLOADED_MESSAGE = "El servicio se encuentra saturado en este " +
+            "momento. Intente nuevamente en unos segundos.";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    /**
+     * Constructor del codificador.
+     * @param delegate codificador real (BCrypt).
+     * @param poolSize cantidad de hilos dedicados al hash.
+     * @param queueCapacity cantidad máxima de hashes en espera.
+     * @param timeoutMillis tiempo máximo de espera (cola + hash) por operación.
+     * @param retryAfterSeconds segundos sugeridos al cliente antes de reintentar.
+     * @param meterRegistry registro de métricas.
+     * */
+    public BoundedPasswordEncoder(PasswordEncoder delegate,
+                                  int poolSize,
+                                  int queueCapacity,
+                                  long timeoutMillis,
+                                  long retryAfterSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        final var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    final var thread = new Thread(runnable,
+                            "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("password.hash.latency")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hash.rejected")
+                .register(meterRegistry);
+        Gauge.builder("password.hash.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Función de cierre. Detiene el pool de hilos al apagar el contexto de Spring.
+     * */
+    public void shutdown(){
+        executor.shutdownNow();
+    }
+
+    /**
+     * Función auxiliar que ejecuta una operación de hash en el pool y espera su resultado.
+     * @param task operación a ejecutar.
+     * @return resultado de la operación.
+     * @throws ServiceOverloadedException en caso de que la cola esté llena, el tiempo de
+     * espera se agote o el hilo sea interrumpido.
+     * */
+    private <T> T submit(Callable<T> task){
+        final Future<T> future;
+        try{
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        }catch (RejectedExecutionException ex){
+            rejected.increment();
+            throw new ServiceOverloadedException(OVERLOADED_MESSAGE, retryAfterSeconds);
+        }
+
+        try{
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        }catch (TimeoutException ex){
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceOverloadedException(OVERLOADED_MESSAGE, retryAfterSeconds);
+        }catch (InterruptedException ex){
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceOverloadedException(OVERLOADED_MESSAGE, retryAfterSeconds);
+        }catch (ExecutionException ex){
+            if(ex.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.UNED.APIDataMujer.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Set;
+
+/**
+ * Clase utilitaria que clasifica las rutas de la API según su primer segmento. Es la única
+ * fuente de las rutas públicas: SecurityConfig construye sus patrones desde acá y los
+ * filtros la consultan en tiempo constante en lugar de comparar subcadenas.
+ * @author glunah2001
+ * */
+public final class RouteClassifier {
+
+    private static final Set<String> PUBLIC_ROOTS = Set.of("auth", "register", "activate");
+    private static final Set<String> VERSION_EXEMPT_ROOTS = Set.of("activate");
+    private static final Set<String> VERSION_EXEMPT_PATHS = Set.of("/auth/jwks");
+
+    private RouteClassifier() { }
+
+    /**
+     * Función que retorna los patrones de las rutas públicas para el SecurityFilterChain.
+     * @return patrones con formato "/raiz/**".
+     * */
+    public static String[] publicPatterns(){
+        return PUBLIC_ROOTS.stream()
+                .map(root -> "/" + root + "/**")
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Función que indica si la ruta de la petición es pública (no requiere JWT).
+     * @param request petición enviada desde el cliente.
+     * @return booleano de confirmación o negación.
+     * */
+    public static boolean isPublic(HttpServletRequest request){
+        return PUBLIC_ROOTS.contains(firstSegment(request.getServletPath()));
+    }
+
+    /**
+     * Función que indica si la ruta de la petición está exenta de la verificación de
+     * versión del cliente (p. ej. el link de activación abierto desde un navegador o el
+     * JWKS consultado por otros servicios).
+     * @param request petición enviada desde el cliente.
+     * @return booleano de confirmación o negación.
+     * */
+    public static boolean isVersionCheckExempt(HttpServletRequest request){
+        final String path = request.getServletPath();
+        return VERSION_EXEMPT_PATHS.contains(path) ||
+                VERSION_EXEMPT_ROOTS.contains(firstSegment(path));
+    }
+
+    /**
+     * Función auxiliar que extrae el primer segmento de una ruta.
+     * @param path ruta de la petición (p. ej. "/auth/login").
+     * @return primer segmento (p. ej. "auth") o cadena vacía.
+     * */
+    private static String firstSegment(String path){
+        if(path == null || path.isEmpty()) return "";
+        final int start = path.charAt(0) == '/' ? 1 : 0;
+        final int end = path.indexOf('/', start);
+        return end < 0 ? path.substring(start) : path.substring(start, end);
+    }
+}
@@ -1,20 +1,19 @@
 package com.UNED.APIDataMujer.security;
 
-import com.UNED.APIDataMujer.dto.ApiError;
-import com.UNED.APIDataMujer.entity.Token;
+import com.UNED.APIDataMujer.enums.ErrorCode;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
-import com.UNED.APIDataMujer.mapper.ApiErrorMapper;
-import com.UNED.APIDataMujer.repository.TokenRepository;
+import com.UNED.APIDataMujer.mapper.ErrorResponseWriter;
 import com.UNED.APIDataMujer.security.filter.JwtAuthFilter;
+import com.UNED.APIDataMujer.security.filter.RateLimitFilter;
 import com.UNED.APIDataMujer.security.filter.VersionCheckFilter;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
+import com.UNED.APIDataMujer.service.jwt.JwtService;
+import com.UNED.APIDataMujer.service.resource.TokenEpochService;
+import com.UNED.APIDataMujer.service.resource.TokenService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -39,10 +38,12 @@ public class SecurityConfig{
 
     private final AuthenticationProvider authProvider;
     private final VersionCheckFilter versionCheckFilter;
+    private final RateLimitFilter rateLimitFilter;
     private final JwtAuthFilter jwtAuthFilter;
-    private final TokenRepository tokenRepository;
-    private final ApiErrorMapper apiErrorMapper;
-    private final ObjectMapper objectMapper;
+    private final TokenService tokenService;
+    private final TokenEpochService tokenEpochService;
+    private final JwtService jwtService;
+    private final ErrorResponseWriter errorResponseWriter;
 
     /**
      * Bean definido para definir varios aspectos de seguridad necesarios para la operabilidad
@@ -60,7 +61,9 @@ public class SecurityConfig{
         return httpSecurity
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/**", "/register/**", "/activate/**").permitAll()
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(RouteClassifier.publicPatterns()).permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session ->
@@ -68,19 +71,20 @@ public class SecurityConfig{
                 .authenticationProvider(authProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(versionCheckFilter, JwtAuthFilter.class)
+                .addFilterBefore(rateLimitFilter, VersionCheckFilter.class)
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint((request,
                                                    response,
                                                    authException) ->
-                                handleError(HttpStatus.UNAUTHORIZED,
-                                        "No estás autenticado",
-                                        request, response))
+                                errorResponseWriter.write(response,
+                                        ErrorCode.SECURITY_UNAUTHORIZED,
+                                        request.getServletPath()))
                         .accessDeniedHandler((request,
                                               response,
                                               accessDeniedException) ->
-                                handleError(HttpStatus.FORBIDDEN,
-                                        "No tienes permisos para realizar esta acción",
-                                        request, response))
+                                errorResponseWriter.write(response,
+                                        ErrorCode.SECURITY_FORBIDDEN,
+                                        request.getServletPath()))
                 )
                 .logout(logout -> logout
                         .logoutUrl("/auth/logout")
@@ -92,13 +96,13 @@ public class SecurityConfig{
                                 logout(authHeader);
                             }catch (IllegalArgumentException ex) {
                                 try{
-                                    handleError(HttpStatus.BAD_REQUEST, ex.getMessage(), request, response);
+                                    errorResponseWriter.write(response, ErrorCode.SECURITY_BAD_REQUEST, request.getServletPath());
                                 }catch (IOException ioEx) {
                                     throw new RuntimeException(ioEx);
                                 }
                             }catch (ResourceNotFoundException ex) {
                                 try{
-                                    handleError(HttpStatus.NOT_FOUND, ex.getMessage(), request, response);
+                                    errorResponseWriter.write(response, ErrorCode.SECURITY_NOT_FOUND, request.getServletPath());
                                 }catch (IOException ioEx) {
                                     throw new RuntimeException(ioEx);
                                 }
@@ -113,7 +117,8 @@ public class SecurityConfig{
     }
 
     /**
-     * Función que especifica el mecanismo de logout
+     * Función que especifica el mecanismo de logout. En modo "epoch" se incrementa la época
+     * del usuario, lo que revoca todas sus sesiones activas.
      * @param authHeader Token JWT.
      * @throws IllegalArgumentException en caso de que el JWT sea inválido.
      * */
@@ -122,33 +127,16 @@ public class SecurityConfig{
             throw new IllegalArgumentException("Token Bearer Inválido");
 
         final String jwtToken = authHeader.substring(7);
-        final Token foundToken = tokenRepository.findByToken(jwtToken)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("El token ingresado no se ha " +
-                                "encontrado en la base de datos."));
-        foundToken.setRevoked(true);
-        foundToken.setExpired(true);
-        tokenRepository.save(foundToken);
-    }
+        if(tokenEpochService.isEnabled()){
+            final var claims = jwtService.verifyToken(jwtToken)
+                    .filter(c -> c.userId() != null)
+                    .orElseThrow(() -> new IllegalArgumentException("Token Bearer Inválido"));
+            tokenEpochService.bumpEpoch(claims.userId());
+            return;
+        }
 
-    /**Función auxiliar encargada de escribir y enviar errores en el handler
-     * del SecurityFilterChain.
-     * @param response respuesta a enviar al cliente
-     * @param request request enviada por el cliente
-     * @param status estatus del error
-     * @param message mensaje del error
-     * */
-    private void handleError(HttpStatus status,
-                             String message,
-                             HttpServletRequest request,
-                             HttpServletResponse response) throws IOException {
-        ApiError error = apiErrorMapper.toDto(
-                status,
-                "Usted no tiene los permisos de acceso necesarios para realizar esta operación.",
-                request.getServletPath()
-        );
-        response.setContentType("application/json");
-        response.setStatus(status.value());
-        response.getWriter().write(objectMapper.writeValueAsString(error));
+        if(!tokenService.revokeTokenByHash(TokenDigest.of(jwtToken)))
+            throw new ResourceNotFoundException("El token ingresado no se ha " +
+                    "encontrado en la base de datos.");
     }
 }
@@ -0,0 +1,32 @@
+package com.UNED.APIDataMujer.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Clase utilitaria que calcula el digest (SHA-256 en hexadecimal) con el que los tokens se
+ * persisten y consultan en TBDMDETTokens. El valor original del token nunca se almacena.
+ * @author glunah2001
+ * */
+public final class TokenDigest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TokenDigest() { }
+
+    /**
+     * Función que calcula el digest de un token.
+     * @param token valor original del token (JWT o UUID+expiración).
+     * @return cadena hexadecimal en minúsculas de 64 caracteres.
+     * */
+    public static String of(String token){
+        try{
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        }catch (NoSuchAlgorithmException ex){
+            throw new IllegalStateException("SHA-256 no está disponible en esta JVM.", ex);
+        }
+    }
+}
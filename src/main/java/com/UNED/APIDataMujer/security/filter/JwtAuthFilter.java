@@ -1,20 +1,27 @@
 package com.UNED.APIDataMujer.security.filter;
 
-import com.UNED.APIDataMujer.dto.ApiError;
 import com.UNED.APIDataMujer.entity.User;
-import com.UNED.APIDataMujer.mapper.ApiErrorMapper;
+import com.UNED.APIDataMujer.enums.ErrorCode;
+import com.UNED.APIDataMujer.mapper.ErrorResponseWriter;
 import com.UNED.APIDataMujer.repository.TokenRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.security.RouteClassifier;
+import com.UNED.APIDataMujer.security.TokenDigest;
+import com.UNED.APIDataMujer.security.principal.AuthenticatedUser;
+import com.UNED.APIDataMujer.security.principal.SecurityUser;
+import com.UNED.APIDataMujer.service.cache.TokenStatusCache;
+import com.UNED.APIDataMujer.service.jwt.JwtClaims;
 import com.UNED.APIDataMujer.service.jwt.JwtService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.UNED.APIDataMujer.service.resource.TokenEpochService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,23 +30,31 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Optional;
 
 /**
  * Clase encargada de filtrar todas las peticiones según su JWT. Tiene mayor énfasis en aquellas
- * dirigidas a rutas protegidas
+ * dirigidas a rutas protegidas.
+ * Si "claims-principal" está habilitado, el principal se construye desde los claims del token
+ * sin consultar la tabla de usuarios; en caso contrario (o si el token no trae dichos claims)
+ * se carga el usuario desde la BD.
  * @author glunah2001
  * */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    @Value("${application.spring.security.claims-principal:true}")
+    private boolean claimsPrincipal;
+
     private final JwtService jwtService;
     private final TokenRepository tokenRepository;
+    private final TokenStatusCache tokenStatusCache;
+    private final TokenEpochService tokenEpochService;
     private final UserRepository userRepository;
     private final UserDetailsService userDetailsService;
-    private final ApiErrorMapper apiErrorMapper;
-    private final ObjectMapper objectMapper;
+    private final ErrorResponseWriter errorResponseWriter;
 
     /**
      * Función de clase abstracta encargada de revisar que cada request tenga un
@@ -54,8 +69,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        if(request.getServletPath().contains("/auth") || request.getServletPath().contains("/register") ||
-                request.getServletPath().contains("/activate")){
+        if(RouteClassifier.isPublic(request)){
             filterChain.doFilter(request, response);
             return;
         }
@@ -63,16 +77,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final var header = request.getHeader(HttpHeaders.AUTHORIZATION);
         if(header == null || !header.startsWith("Bearer ")){
             sendError(response,
-                    "Acceso no autorizado: formato de token inválido",
+                    ErrorCode.TOKEN_MALFORMED,
                     request.getServletPath());
             return;
         }
 
         final var jjwt = header.substring(7);
-        final var username = jwtService.getUsername(jjwt);
-        if(username == null){
+        final var claims = jwtService.verifyToken(jjwt).orElse(null);
+        if(claims == null || claims.username() == null){
             sendError(response,
-                    "Acceso no autorizado: el token puede estar corrupto o ser inválido.",
+                    ErrorCode.TOKEN_INVALID,
                     request.getServletPath());
             return;
         }
@@ -82,60 +96,97 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        final var token = tokenRepository.findByToken(jjwt).orElse(null);
-        if(token == null || token.isExpired() || token.isRevoked()){
+        if(!isTokenActive(jjwt, claims)){
             sendError(response,
-                    "Acceso no autorizado: el token ya no es válido.",
+                    ErrorCode.TOKEN_INACTIVE,
                     request.getServletPath());
             return;
         }
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-        final Optional<User> user = userRepository.findByUsername(userDetails.getUsername());
+        final AuthenticatedUser principal = claimsPrincipal ?
+                AuthenticatedUser.fromClaims(claims) : null;
+        if(principal != null){
+            authenticate(request, principal, principal.getAuthorities());
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final UserDetails userDetails = userDetailsService.loadUserByUsername(claims.username());
+        final Optional<User> user = userDetails instanceof SecurityUser securityUser ?
+                Optional.of(securityUser.user()) :
+                userRepository.findByUsername(userDetails.getUsername());
         if(user.isEmpty()){
             sendError(response,
-                    "Acceso no autorizado: el usuario indicado en el token " +
-                            "no existe en la base de datos.",
+                    ErrorCode.TOKEN_USER_NOT_FOUND,
                     request.getServletPath());
             return;
         }
 
-        final boolean isTokenValid = jwtService.isTokenValid(jjwt, user.get());
+        final boolean isTokenValid = jwtService.isTokenValid(claims, user.get());
         if(!isTokenValid){
             sendError(response,
-                    "Acceso no autorizado: el token ya no es válido para este usuario.",
+                    ErrorCode.TOKEN_USER_MISMATCH,
                     request.getServletPath());
 
             return;
         }
 
+        authenticate(request, userDetails, userDetails.getAuthorities());
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Función auxiliar que coloca al principal autenticado en el securityContext.
+     * @param request petición enviada desde el cliente.
+     * @param principal principal autenticado (claims del token o UserDetails de la BD).
+     * @param authorities autoridades del principal.
+     * */
+    private void authenticate(HttpServletRequest request,
+                              Object principal,
+                              Collection<? extends GrantedAuthority> authorities){
         final var authToken = new UsernamePasswordAuthenticationToken(
-                userDetails,
+                principal,
                 null,
-                userDetails.getAuthorities()
+                authorities
         );
 
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
 
-        filterChain.doFilter(request, response);
+    /**
+     * Función auxiliar que consulta el estado (revocado/expirado) del token. En modo "epoch"
+     * basta con comparar la época del token; en caso contrario primero se consulta la caché
+     * y solo ante un fallo se consulta la base de datos.
+     * @param jjwt token de acceso recibido.
+     * @param claims claims verificados del token.
+     * @return booleano que indica si el token sigue activo.
+     * */
+    private boolean isTokenActive(String jjwt, JwtClaims claims){
+        if(tokenEpochService.isEnabled())
+            return tokenEpochService.isEpochValid(claims);
+
+        final String tokenHash = TokenDigest.of(jjwt);
+        final Boolean cached = tokenStatusCache.getStatus(tokenHash);
+        if(cached != null) return cached;
+
+        final long generation = tokenStatusCache.generation();
+        final var token = tokenRepository.findByTokenHash(tokenHash).orElse(null);
+        final boolean active = token != null && !token.isExpired() && !token.isRevoked();
+        tokenStatusCache.put(tokenHash,
+                token != null ? token.getUser().getId() : -1,
+                active,
+                claims.expiration(),
+                generation);
+        return active;
     }
 
     /**
-     * Función auxiliar para retornar un DTO de reporte de error similar a como se hace con el
-     * RestControllerAdvice general.
+     * Función auxiliar para retornar un reporte de error similar a como se hace con el
+     * RestControllerAdvice general. El cuerpo se escribe desde el catálogo pre-serializado.
      * */
-    private void sendError(HttpServletResponse response, String message, String path)
+    private void sendError(HttpServletResponse response, ErrorCode code, String path)
             throws IOException {
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json");
-
-        ApiError apiError = apiErrorMapper.toDto(
-                HttpStatus.valueOf(HttpServletResponse.SC_UNAUTHORIZED),
-                message,
-                path
-        );
-
-        response.getWriter().write(objectMapper.writeValueAsString(apiError));
+        errorResponseWriter.write(response, code, path);
     }
 }
@@ -0,0 +1,91 @@
+package com.UNED.APIDataMujer.security.filter;
+
+import com.UNED.APIDataMujer.config.RateLimitProperties;
+import com.UNED.APIDataMujer.enums.ErrorCode;
+import com.UNED.APIDataMujer.mapper.ErrorResponseWriter;
+import com.UNED.APIDataMujer.service.cache.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clase encargada de limitar la cantidad de peticiones por IP a las rutas públicas costosas.
+ * La IP del cliente se toma de request.getRemoteAddr(), que ya considera las cabeceras
+ * X-Forwarded-* según server.forward-headers-strategy. Se ejecuta antes del resto de filtros
+ * para rechazar el exceso de peticiones lo antes posible.
+ * @author glunah2001
+ * @see RateLimiter
+ * */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private record Route(String name, String path, boolean prefix, int capacity, long refillPeriod) {
+        private boolean matches(String servletPath){
+            return prefix ? servletPath.startsWith(path) : servletPath.equals(path);
+        }
+    }
+
+    private final RateLimiter rateLimiter;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final List<Route> routes;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           ErrorResponseWriter errorResponseWriter,
+                           RateLimitProperties properties) {
+        this.rateLimiter = rateLimiter;
+        this.errorResponseWriter = errorResponseWriter;
+        this.routes = properties.routes().entrySet().stream()
+                .map(RateLimitFilter::toRoute)
+                .toList();
+    }
+
+    /**
+     * Función de clase abstracta encargada de consumir un permiso del bucket de la IP del
+     * cliente para la ruta solicitada.
+     * @param request petición enviada desde el cliente
+     * @param response respuesta a enviar al cliente
+     * @param filterChain secuencia de filtros a ejecutar
+     * */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        final String path = request.getServletPath();
+        for(Route route : routes){
+            if(!route.matches(path)) continue;
+
+            final long waitMillis = rateLimiter.tryConsume(
+                    route.name() + "|ip:" + request.getRemoteAddr(),
+                    route.capacity(),
+                    route.refillPeriod());
+            if(waitMillis > 0){
+                response.setHeader(HttpHeaders.RETRY_AFTER,
+                        String.valueOf(Math.max(1, (waitMillis + 999) / 1000)));
+                errorResponseWriter.write(response, ErrorCode.RATE_LIMITED, path);
+                return;
+            }
+            break;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Función auxiliar que convierte la configuración de una ruta.
+     * */
+    private static Route toRoute(Map.Entry<String, RateLimitProperties.Route> entry){
+        final var route = entry.getValue();
+        final boolean prefix = route.path().endsWith("/**");
+        final String path = prefix ?
+                route.path().substring(0, route.path().length() - 2) : route.path();
+        return new Route(entry.getKey(), path, prefix, route.capacity(), route.refillPeriod());
+    }
+}
@@ -1,8 +1,10 @@
 package com.UNED.APIDataMujer.security.filter;
 
-import com.UNED.APIDataMujer.dto.ApiError;
-import com.UNED.APIDataMujer.mapper.ApiErrorMapper;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.UNED.APIDataMujer.enums.ErrorCode;
+import com.UNED.APIDataMujer.mapper.ErrorResponseWriter;
+import com.UNED.APIDataMujer.mapper.ErrorResponseWriter.PreparedError;
+import com.UNED.APIDataMujer.security.RouteClassifier;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -27,8 +30,23 @@ public class VersionCheckFilter extends OncePerRequestFilter {
             "DataMujer-Client", "1.1.0"
     );
 
-    private final ApiErrorMapper apiErrorMapper;
-    private final ObjectMapper objectMapper;
+    private enum VersionStatus { SUPPORTED, OUTDATED, UNKNOWN_CLIENT, MALFORMED }
+
+    private final ErrorResponseWriter errorResponseWriter;
+
+    private final Map<String, PreparedError> outdatedErrors = new HashMap<>();
+
+    /**
+     * Función de inicialización. Serializa una única vez el error de versión antigua de
+     * cada cliente soportado.
+     * */
+    @PostConstruct
+    void init(){
+        MIN_SUPPORTED_VERSIONS.forEach((client, minVersion) ->
+                outdatedErrors.put(client, errorResponseWriter.prepare(HttpStatus.FORBIDDEN,
+                        "Acceso no autorizado: Su cliente pertenece a una versión antigua. " +
+                                "Actualice a la versión "+minVersion+".")));
+    }
 
     /**
      * Función de clase abstracta encargada de revisar que cada request se emita
@@ -42,7 +60,7 @@ public class VersionCheckFilter extends OncePerRequestFilter {
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
 
-        if(request.getServletPath().contains("/activate")){
+        if(RouteClassifier.isVersionCheckExempt(request)){
             filterChain.doFilter(request, response);
             return;
         }
@@ -53,7 +71,7 @@ public class VersionCheckFilter extends OncePerRequestFilter {
         if(clientName == null || clientVersion == null){
             sendError(
                     response,
-                    "Acceso no autorizado: formato de cliente inválido",
+                    ErrorCode.CLIENT_MALFORMED,
                     request.getServletPath()
             );
             return;
@@ -62,35 +80,62 @@ public class VersionCheckFilter extends OncePerRequestFilter {
         if(clientName.isBlank() || clientVersion.isBlank()){
             sendError(
                     response,
-                    "Acceso no autorizado: formato de cliente inválido",
+                    ErrorCode.CLIENT_MALFORMED,
                     request.getServletPath()
             );
             return;
         }
 
-        String minVersion = MIN_SUPPORTED_VERSIONS.get(clientName);
-
-        if(minVersion == null){
-            sendError(
-                    response,
-                    "Acceso no autorizado: Cliente inválido",
-                    request.getServletPath()
-            );
-            return;
-        }
-
-        if(isOlderVersion(clientVersion, minVersion)){
-            sendError(
-                    response,
-                    "Acceso no autorizado: Su cliente pertenece a una versión antigua. Actualice a la versión "+minVersion+".",
-                    request.getServletPath()
-            );
-            return;
+        switch (evaluate(clientName, clientVersion)){
+            case UNKNOWN_CLIENT -> {
+                sendError(
+                        response,
+                        ErrorCode.CLIENT_UNKNOWN,
+                        request.getServletPath()
+                );
+                return;
+            }
+            case MALFORMED -> {
+                sendError(
+                        response,
+                        ErrorCode.CLIENT_MALFORMED,
+                        request.getServletPath()
+                );
+                return;
+            }
+            case OUTDATED -> {
+                errorResponseWriter.write(
+                        response,
+                        outdatedErrors.get(clientName),
+                        request.getServletPath()
+                );
+                return;
+            }
+            default -> { }
         }
 
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Función auxiliar que evalúa un par cliente/versión. Parsear unos pocos números es
+     * más barato que mantener una caché, y evita que cabeceras rotativas la agoten.
+     * @param clientName nombre del cliente.
+     * @param clientVersion versión del cliente.
+     * @return estado del par evaluado.
+     * */
+    private VersionStatus evaluate(String clientName, String clientVersion){
+        String minVersion = MIN_SUPPORTED_VERSIONS.get(clientName);
+        if(minVersion == null) return VersionStatus.UNKNOWN_CLIENT;
+
+        try{
+            return isOlderVersion(clientVersion, minVersion) ?
+                    VersionStatus.OUTDATED : VersionStatus.SUPPORTED;
+        }catch (NumberFormatException ex){
+            return VersionStatus.MALFORMED;
+        }
+    }
+
     private boolean isOlderVersion(String current, String minimum) {
         String[] currentParts = current.split("\\.");
         String[] minimumParts = minimum.split("\\.");
@@ -104,17 +149,11 @@ public class VersionCheckFilter extends OncePerRequestFilter {
         return false;
     }
 
-    private void sendError(HttpServletResponse response, String message, String path)
+    /**
+     * Función auxiliar que escribe un error del catálogo pre-serializado.
+     * */
+    private void sendError(HttpServletResponse response, ErrorCode code, String path)
             throws IOException {
-        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-        response.setContentType("application/json");
-
-        ApiError apiError = apiErrorMapper.toDto(
-                HttpStatus.valueOf(HttpServletResponse.SC_FORBIDDEN),
-                message,
-                path
-        );
-
-        response.getWriter().write(objectMapper.writeValueAsString(apiError));
+        errorResponseWriter.write(response, code, path);
     }
 }
@@ -0,0 +1,53 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import com.UNED.APIDataMujer.service.jwt.JwtClaims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal de Spring Security construido directamente desde los claims verificados
+ * del JWT. Permite resolver autenticación y autorización (@PreAuthorize) sin consultar
+ * la tabla de usuarios en cada petición.
+ * @param id identificador del usuario.
+ * @param username nombre de usuario (subject del token).
+ * @param role rol del usuario.
+ * @param personType tipo de persona asociada al usuario.
+ * @author glunah2001
+ * */
+public record AuthenticatedUser(
+        long id,
+        String username,
+        String role,
+        String personType
+) implements Principal {
+
+    /**
+     * Función de fábrica. Construye el principal desde los claims del token.
+     * @param claims claims verificados del JWT.
+     * @return principal autenticado o NULL si el token no trae los claims necesarios
+     * (p. ej. tokens emitidos antes de incluir el id del usuario).
+     * */
+    public static AuthenticatedUser fromClaims(JwtClaims claims){
+        if(claims.userId() == null || claims.username() == null || claims.role() == null)
+            return null;
+        return new AuthenticatedUser(claims.userId(), claims.username(),
+                claims.role(), claims.personType());
+    }
+
+    /**
+     * Función que retorna las autoridades del principal según su rol.
+     * @return colección con la autoridad del rol.
+     * */
+    public Collection<? extends GrantedAuthority> getAuthorities(){
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,17 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Anotación para parámetros de controladores de tipo User. Indica que se debe inyectar
+ * la entidad del usuario autenticado resuelta por CurrentUserResolver.
+ * @author glunah2001
+ * @see CurrentUserArgumentResolver
+ * */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
@@ -0,0 +1,40 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import com.UNED.APIDataMujer.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolvedor de argumentos de controladores. Inyecta la entidad User del usuario
+ * autenticado en los parámetros anotados con @CurrentUser.
+ * @author glunah2001
+ * @see CurrentUserResolver
+ * */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserResolver currentUserResolver;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class) &&
+                User.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        final var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if(authentication == null) return null;
+        return currentUserResolver.resolve(authentication);
+    }
+}
@@ -0,0 +1,79 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Componente encargado de resolver la entidad User del usuario autenticado como máximo
+ * una vez por petición. La entidad se guarda como atributo de la request, de modo que
+ * los controladores (vía @CurrentUser) y los servicios que atienden la petición comparten
+ * la misma instancia.
+ * Si el principal proviene de los claims del token se busca por llave primaria; en caso
+ * contrario se busca por username.
+ * @author glunah2001
+ * */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+
+    private static final String ATTRIBUTE = CurrentUserResolver.class.getName() + ".USER";
+
+    private final UserRepository userRepository;
+
+    /**
+     * Función que obtiene el usuario autenticado de la petición en curso.
+     * @param authentication credenciales de autentificación del usuario.
+     * @return entidad User de la BD.
+     * @throws ResourceNotFoundException en caso de que el usuario ya no exista.
+     * */
+    public User resolve(final Authentication authentication){
+        final var attributes = RequestContextHolder.getRequestAttributes();
+        if(attributes == null) return load(authentication);
+
+        if(attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && user.getUsername().equals(authentication.getName()))
+            return user;
+
+        final var user = load(authentication);
+        attributes.setAttribute(ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    /**
+     * Función que retorna el usuario ya resuelto en la petición en curso si su username
+     * coincide con el indicado. Evita volver a consultar la BD cuando un flujo busca al
+     * propio usuario autenticado por su username.
+     * @param username nombre de usuario buscado.
+     * @return el usuario ya resuelto o NULL si no hay coincidencia.
+     * */
+    public User findResolved(final String username){
+        final var attributes = RequestContextHolder.getRequestAttributes();
+        if(attributes == null) return null;
+
+        if(attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof User user
+                && user.getUsername().equals(username))
+            return user;
+        return null;
+    }
+
+    /**
+     * Función auxiliar que carga el usuario desde la BD.
+     * @param authentication credenciales de autentificación del usuario.
+     * @return entidad User de la BD.
+     * */
+    private User load(final Authentication authentication){
+        final var user = authentication.getPrincipal() instanceof AuthenticatedUser principal ?
+                userRepository.findById(principal.id()) :
+                userRepository.findByUsername(authentication.getName());
+
+        return user.orElseThrow(() ->
+                new ResourceNotFoundException("No se ha encontrado ningún usuario registrado con el " +
+                        "nombre de usuario: "+authentication.getName()+"."));
+    }
+}
@@ -0,0 +1,44 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import com.UNED.APIDataMujer.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Adaptador UserDetails de la entidad User. Permite que el login reutilice la entidad
+ * cargada por el DaoAuthenticationProvider en lugar de volver a consultarla.
+ * No implementa CredentialsContainer, por lo que Spring Security no borra la contraseña
+ * de la entidad tras autenticar.
+ * @param user entidad del usuario autenticado.
+ * @author glunah2001
+ * */
+public record SecurityUser(User user) implements UserDetails {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(user.getRole().name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return user.getPassword();
+    }
+
+    @Override
+    public String getUsername() {
+        return user.getUsername();
+    }
+
+    /**
+     * Representación del principal para registros. Solo expone el username: nunca incluye
+     * la contraseña ni toca las asociaciones perezosas de la entidad.
+     * */
+    @Override
+    public String toString() {
+        return "SecurityUser[username=" + user.getUsername() + "]";
+    }
+}
@@ -1,17 +1,23 @@
 package com.UNED.APIDataMujer.service.authentication;
 
+import com.UNED.APIDataMujer.config.RateLimitProperties;
 import com.UNED.APIDataMujer.dto.authentication.UserLoginDTO;
 import com.UNED.APIDataMujer.dto.token.TokenResponse;
 import com.UNED.APIDataMujer.entity.*;
 import com.UNED.APIDataMujer.enums.TokenType;
 import com.UNED.APIDataMujer.exception.InvalidTokenException;
 import com.UNED.APIDataMujer.exception.NotActiveUserException;
+import com.UNED.APIDataMujer.exception.RateLimitExceededException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
 import com.UNED.APIDataMujer.repository.*;
+import com.UNED.APIDataMujer.security.principal.SecurityUser;
+import com.UNED.APIDataMujer.service.cache.RateLimiter;
 import com.UNED.APIDataMujer.service.jwt.JwtService;
 import com.UNED.APIDataMujer.service.registration.ActivationService;
+import com.UNED.APIDataMujer.service.resource.TokenEpochService;
 import com.UNED.APIDataMujer.service.resource.TokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -29,30 +35,53 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService{
 
+    @Value("${application.spring.security.expiration}")
+    private long accessExpiration;
+
     private final JwtService jwtService;
     private final ActivationService activationService;
     private final TokenService tokenService;
+    private final TokenEpochService tokenEpochService;
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
 
     private final AuthenticationManager authManager;
     private final UserRepository userRepository;
 
     /**
-     * Permite el inicio de sesión a los usuarios activos.
+     * Permite el inicio de sesión a los usuarios activos. La entidad del usuario se reutiliza
+     * desde la autenticación, sin volver a consultarla. Solo los intentos con credenciales
+     * incorrectas cuentan para el límite por usuario: si la autenticación tiene éxito, el
+     * permiso consumido se devuelve.
      * @param userLoginDTO Información de inicio de sesión (username y contraseña).
      * @return Un TokenResponse que contiene un accessToken y un refreshToken nuevos.
      * @throws UsernameNotFoundException en caso de que el usuario no sea encontrado
      * */
     @Override
     public TokenResponse login(final UserLoginDTO userLoginDTO) {
-        authManager.authenticate(
+        final var loginPerUser = rateLimitProperties.loginPerUser();
+        final String rateLimitKey = "login-user|" + userLoginDTO.username();
+        final long waitMillis = rateLimiter.tryConsume(rateLimitKey,
+                loginPerUser.capacity(), loginPerUser.refillPeriod());
+        if(waitMillis > 0)
+            throw new RateLimitExceededException("Ha superado el máximo de intentos de inicio de " +
+                    "sesión para este usuario. Intente nuevamente más tarde.",
+                    Math.max(1, (waitMillis + 999) / 1000));
+
+        final var authentication = authManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         userLoginDTO.username(),
                         userLoginDTO.password()
                 )
         );
-        var user = userRepository.findByUsername(userLoginDTO.username())
-                .orElseThrow(() ->
-                        new UsernameNotFoundException("El usuario no se encuentra registrado en el sistema."));
+        rateLimiter.refund(rateLimitKey, loginPerUser.capacity());
+
+        var user = authentication.getPrincipal() instanceof SecurityUser securityUser ?
+                securityUser.user() :
+                userRepository.findByUsername(userLoginDTO.username())
+                        .orElseThrow(() ->
+                                new UsernameNotFoundException("El usuario no se encuentra registrado en el sistema."));
 
         isUserActive(user);
 
@@ -71,18 +100,25 @@ public class AuthServiceImpl implements AuthService{
             throw new IllegalArgumentException("Formato de token inválido.");
 
         String token = authHeader.substring(7);
-        var username = jwtService.getUsername(token);
-        if(username == null)
+        var claims = jwtService.verifyToken(token)
+                .orElseThrow(() ->
+                        new InvalidTokenException("El token de refresco es inválido: " +
+                                "Puede estar corrupto o haber concluido su vida útil."));
+        if(claims.username() == null)
             throw new IllegalArgumentException("El token de refresco es inválido: Nombre de usuario inválido");
 
-        var user = userRepository.findByUsername(username)
+        var user = userRepository.findByUsername(claims.username())
                 .orElseThrow(() ->
                         new ResourceNotFoundException("El usuario indicado en el JWT no se haya registrado."));
 
-        if(!jwtService.isTokenValid(token, user))
+        if(!jwtService.isTokenValid(claims, user))
             throw new InvalidTokenException("El token proporcionado es inválido: " +
                     "Puede no pertenecer a su usuario o haber concluido su vida útil.");
 
+        if(tokenEpochService.isEnabled() && !tokenEpochService.isEpochValid(claims))
+            throw new InvalidTokenException("El token proporcionado es inválido: " +
+                    "Su sesión fue revocada.");
+
         return tokenGeneration(user);
     }
 
@@ -102,16 +138,22 @@ public class AuthServiceImpl implements AuthService{
 
     /**
      * Función auxiliar. Se usa para generar los tokens de acceso y refresco del user
-     * autenticado.
+     * autenticado. En modo "epoch" las sesiones previas se revocan incrementando la época
+     * del usuario y el token no se persiste en la BD.
      * @param user se necesita el usuario para conocer quien es el propietarios de los
      *             tokens en la BD.
      * @return TokenResponse con el accessToken y refreshToken.
      * */
     private TokenResponse tokenGeneration(final User user){
+        if(tokenEpochService.isEnabled()){
+            tokenEpochService.revokeSessions(user);
+            return new TokenResponse(jwtService.generateAccessToken(user),
+                    jwtService.generateRefreshToken(user));
+        }
+
         final var accessToken = jwtService.generateAccessToken(user);
         final var refreshToken = jwtService.generateRefreshToken(user);
-        tokenService.revokeAllActiveTokens(user);
-        tokenService.saveToken(accessToken, user, TokenType.BEARER);
+        tokenService.replaceActiveTokens(accessToken, user, TokenType.BEARER, accessExpiration);
         return new TokenResponse(accessToken, refreshToken);
     }
 }
@@ -5,11 +5,12 @@ import com.UNED.APIDataMujer.enums.TokenType;
 import com.UNED.APIDataMujer.exception.BusinessValidationException;
 import com.UNED.APIDataMujer.exception.InvalidTokenException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
-import com.UNED.APIDataMujer.repository.TokenRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
 import com.UNED.APIDataMujer.service.emailing.EmailSendingService;
+import com.UNED.APIDataMujer.service.resource.TokenEpochService;
 import com.UNED.APIDataMujer.service.resource.TokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -23,17 +24,22 @@ import org.springframework.stereotype.Service;
 public class PasswordResetService {
 
     private final UserRepository userRepository;
-    private final TokenRepository tokenRepository;
 
     private final EmailSendingService emailSendingService;
     private final TokenService tokenService;
+    private final TokenEpochService tokenEpochService;
 
     private final PasswordEncoder passwordEncoder;
 
+    @Value("${application.tokens.password-reset.expiration:900000}")
+    private long resetExpiration;
+
     /**
      * Función inicial del proceso. Encargada de encontrar el usuario con contraseña
      * a restablecer mediante su correo registrado. Envía un correo a dicha dirección
-     * con el procedimiento para restablecimiento de Contraseña.
+     * con el procedimiento para restablecimiento de Contraseña. Las solicitudes repetidas
+     * en poco tiempo no emiten un nuevo token ni reenvían el correo; pasado ese tiempo se
+     * emite un token nuevo que invalida al anterior.
      * @param email dirección electronica que debe estar registrada para enviar un
      *              token de recuperación de contraseña que se usará
      *              en el desktop app.
@@ -49,11 +55,13 @@ public class PasswordResetService {
                                 "email: "+email+".")
                 );
 
+        if(!tokenService.tryIssue(user, TokenType.PASSWORD_RESET)) return;
+
         tokenService.revokeAllActiveTokens(user);
+        tokenEpochService.revokeSessions(user);
 
-        long expiration = 15 * 60 * 1000;
-        final String resetToken = tokenService.generateToken(expiration);
-        tokenService.saveToken(resetToken, user, TokenType.PASSWORD_RESET);
+        final String resetToken = tokenService.generateToken(resetExpiration);
+        tokenService.saveToken(resetToken, user, TokenType.PASSWORD_RESET, resetExpiration);
 
         String message = String.format("""
                 Este es su token de restablecimiento de contraseña:
@@ -76,7 +84,7 @@ public class PasswordResetService {
      * sea inválido o caducado
      * */
     public void resetPassword(final ResetPasswordDTO dto){
-        final var token = tokenRepository.findByToken(dto.token())
+        final var token = tokenService.findByValue(dto.token())
                 .orElseThrow(() ->
                         new ResourceNotFoundException("El token ingresado no se ha encontrado en la base de datos."));
 
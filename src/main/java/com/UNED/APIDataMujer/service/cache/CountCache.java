@@ -0,0 +1,119 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché en memoria (acotada) de los totales de los listados paginados. Solo se consulta
+ * cuando el cliente solicita el total de elementos, de modo que las páginas sucesivas de
+ * un mismo listado no repitan el COUNT.
+ * Cada entrada vive como máximo el TTL configurado y se invalida al escribir sobre su
+ * colección. Una generación por colección impide que un COUNT iniciado antes de una
+ * escritura se almacene después de su invalidación.
+ * @author glunah2001
+ * */
+@Component
+@RequiredArgsConstructor
+public class CountCache {
+
+    /**
+     * Colecciones cuyos totales se almacenan en caché.
+     * */
+    public enum Scope { ACTIVITY, VOLUNTEERING, PARTICIPATION, PAYMENT, PERSON }
+
+    private record Key(Scope scope, String filter) { }
+    private record Entry(long count, long expiresAt) { }
+
+    @Value("${application.cache.counts.max-size:10000}")
+    private int maxSize;
+    @Value("${application.cache.counts.ttl:30000}")
+    private long ttl;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Map<Scope, AtomicLong> generations = new EnumMap<>(Scope.class);
+    private final Object lock = new Object();
+    private Map<Key, Entry> entries;
+
+    /**
+     * Función de inicialización. Crea el mapa LRU con el tamaño configurado y registra
+     * los contadores de aciertos y fallos.
+     * */
+    @PostConstruct
+    void init(){
+        for(Scope scope : Scope.values())
+            generations.put(scope, new AtomicLong());
+
+        entries = new LruMap<>(maxSize);
+
+        FunctionCounter.builder("list.count.cache.hits", hits, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("list.count.cache.misses", misses, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Función que obtiene el total de un listado, consultándolo con la función indicada
+     * solo si no se encuentra en caché o ya venció.
+     * @param scope colección a la que pertenece el listado.
+     * @param filter filtro que distingue el listado dentro de la colección (p. ej. el id
+     *               del usuario o el texto buscado).
+     * @param counter función que ejecuta el COUNT en la BD.
+     * @return total de elementos del listado.
+     * */
+    public long count(Scope scope, String filter, LongSupplier counter){
+        final var key = new Key(scope, filter);
+        final long now = System.currentTimeMillis();
+        synchronized (lock){
+            var entry = entries.get(key);
+            if(entry != null && entry.expiresAt() > now){
+                hits.increment();
+                return entry.count();
+            }
+        }
+
+        misses.increment();
+        final var generation = generations.get(scope);
+        final long before = generation.get();
+        final long count = counter.getAsLong();
+
+        synchronized (lock){
+            if(generation.get() == before)
+                entries.put(key, new Entry(count, now + ttl));
+        }
+        return count;
+    }
+
+    /**
+     * Función que invalida todos los totales de las colecciones indicadas. Se ejecuta de
+     * inmediato y nuevamente tras el commit de la transacción activa para que ningún COUNT
+     * concurrente vuelva a cachear el total anterior.
+     * @param scopes colecciones modificadas.
+     * */
+    public void invalidate(Scope... scopes){
+        TransactionalInvalidation.runNowAndAfterCommit(() -> {
+            synchronized (lock){
+                for(Scope scope : scopes)
+                    generations.get(scope).incrementAndGet();
+                entries.keySet().removeIf(key -> {
+                    for(Scope scope : scopes)
+                        if(key.scope() == scope) return true;
+                    return false;
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import com.UNED.APIDataMujer.enums.TokenType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limitador en memoria de la emisión de tokens enviados por correo (activación y
+ * restablecimiento de contraseña). Por cada usuario y tipo de token se lleva una ventana
+ * deslizante con las emisiones recientes:
+ * - Si se alcanzó el máximo de emisiones dentro de la ventana, la emisión se suprime.
+ * - Si la última emisión está dentro del cooldown y el usuario aún tiene un token vigente
+ *   del mismo tipo, la emisión se suprime y el usuario debe usar el correo recién enviado.
+ * Pasado el cooldown se emite un token nuevo que reemplaza al anterior.
+ * La memoria tiene un tope estricto: al superar el máximo de llaves se desaloja la ventana
+ * usada menos recientemente (LRU), en tiempo constante.
+ * @author glunah2001
+ * */
+@Component
+@RequiredArgsConstructor
+public class IssuanceThrottle {
+
+    @Value("${application.tokens.issuance.window:3600000}")
+    private long window;
+    @Value("${application.tokens.issuance.cooldown:60000}")
+    private long cooldown;
+    @Value("${application.tokens.issuance.max-per-window:5}")
+    private int maxPerWindow;
+    @Value("${application.tokens.issuance.max-keys:10000}")
+    private int maxKeys;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+    private Map<String, Deque<Long>> issuances;
+
+    /**
+     * Función de inicialización. Crea el mapa LRU acotado al máximo de llaves configurado.
+     * */
+    @PostConstruct
+    void init(){
+        issuances = new LruMap<>(maxKeys);
+    }
+
+    /**
+     * Función que decide si se puede emitir (y enviar por correo) un nuevo token. En caso
+     * afirmativo la emisión queda registrada en la ventana.
+     * @param type tipo de token a emitir.
+     * @param userId usuario al que se le emitirá el token.
+     * @param hasValidToken indica si el usuario ya posee un token vigente del mismo tipo.
+     *                      Solo se evalúa si la última emisión está dentro del cooldown, y
+     *                      nunca mientras se mantiene el bloqueo de la ventana.
+     * @return TRUE si se puede emitir. FALSE si la emisión debe suprimirse.
+     * */
+    public boolean tryAcquire(TokenType type, long userId, BooleanSupplier hasValidToken){
+        final long now = System.currentTimeMillis();
+        final Deque<Long> timestamps;
+        synchronized (lock){
+            timestamps = issuances.computeIfAbsent(type + ":" + userId, key -> new ArrayDeque<>());
+        }
+
+        final boolean inCooldown;
+        synchronized (timestamps){
+            if(isWindowFull(timestamps, now)){
+                suppressed(type, "window");
+                return false;
+            }
+            inCooldown = !timestamps.isEmpty() && now - timestamps.peekLast() < cooldown;
+        }
+
+        if(inCooldown && hasValidToken.getAsBoolean()){
+            suppressed(type, "cooldown");
+            return false;
+        }
+
+        synchronized (timestamps){
+            if(isWindowFull(timestamps, now)){
+                suppressed(type, "window");
+                return false;
+            }
+            timestamps.addLast(now);
+            return true;
+        }
+    }
+
+    /**
+     * Función auxiliar que descarta las emisiones fuera de la ventana y comprueba si se
+     * alcanzó el máximo. Debe invocarse con el monitor de la ventana tomado.
+     * @param timestamps emisiones registradas del usuario.
+     * @param now momento actual en milisegundos.
+     * @return TRUE si la ventana está llena.
+     * */
+    private boolean isWindowFull(Deque<Long> timestamps, long now){
+        while(!timestamps.isEmpty() && now - timestamps.peekFirst() >= window)
+            timestamps.pollFirst();
+        return timestamps.size() >= maxPerWindow;
+    }
+
+    /**
+     * Función auxiliar que incrementa el contador de emisiones suprimidas.
+     * @param type tipo de token.
+     * @param reason motivo de la supresión.
+     * */
+    private void suppressed(TokenType type, String reason){
+        Counter.builder("token.issuance.suppressed")
+                .tag("type", type.name())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Función que indica cuántas ventanas se mantienen en memoria.
+     * @return número de llaves registradas.
+     * */
+    public int size(){
+        synchronized (lock){
+            return issuances.size();
+        }
+    }
+}
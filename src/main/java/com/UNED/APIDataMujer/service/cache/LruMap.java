@@ -0,0 +1,40 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Mapa LRU acotado usado por las cachés en memoria. Al superar el tamaño máximo se
+ * desaloja, en tiempo constante, la entrada usada menos recientemente. No es seguro
+ * para hilos: quien lo use debe sincronizar el acceso con su propio monitor.
+ * @author glunah2001
+ * */
+class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+    private final int maxSize;
+    private final Runnable onEviction;
+
+    /**
+     * @param maxSize cantidad máxima de entradas.
+     * @param onEviction acción a ejecutar por cada entrada desalojada (p. ej. un contador).
+     * */
+    LruMap(int maxSize, Runnable onEviction){
+        super(16, 0.75f, true);
+        this.maxSize = maxSize;
+        this.onEviction = onEviction;
+    }
+
+    /**
+     * @param maxSize cantidad máxima de entradas.
+     * */
+    LruMap(int maxSize){
+        this(maxSize, () -> { });
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        if(size() <= maxSize) return false;
+        onEviction.run();
+        return true;
+    }
+}
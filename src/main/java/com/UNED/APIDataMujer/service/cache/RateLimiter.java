@@ -0,0 +1,155 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import com.UNED.APIDataMujer.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Limitador de peticiones en memoria basado en token buckets. Cada llave (p. ej. ruta + IP
+ * o ruta + usuario) posee su propio bucket en un mapa concurrente; el estado del bucket es
+ * inmutable y se actualiza con compare-and-set, sin bloqueos en la petición.
+ * La memoria tiene un tope estricto: alcanzado el máximo de llaves, las llaves nuevas
+ * comparten un bucket de desborde por ruta hasta que se libere espacio. El desalojo de
+ * las llaves sin uso (y de las que excedan el tope) se hace en una tarea programada,
+ * nunca durante la petición.
+ * @author glunah2001
+ * @see RateLimitProperties
+ * */
+@Component
+@RequiredArgsConstructor
+public class RateLimiter implements SchedulingConfigurer {
+
+    private record State(double tokens, long lastRefill) { }
+
+    private static final class Bucket {
+        private final AtomicReference<State> state;
+        private volatile long lastAccess;
+
+        private Bucket(int capacity, long now){
+            this.state = new AtomicReference<>(new State(capacity, now));
+            this.lastAccess = now;
+        }
+    }
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> overflow = new ConcurrentHashMap<>();
+
+    /**
+     * Función que registra la tarea de desalojo con el intervalo configurado.
+     * @param registrar registro de tareas programadas.
+     * */
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::scheduledEviction,
+                Duration.ofMillis(properties.evictionInterval()));
+    }
+
+    /**
+     * Función que intenta consumir un permiso del bucket de la llave indicada.
+     * @param key llave del bucket.
+     * @param capacity capacidad máxima del bucket.
+     * @param refillPeriod milisegundos en los que se recarga la capacidad completa.
+     * @return 0 si se concedió el permiso. En caso contrario, los milisegundos a esperar
+     * para obtener un permiso.
+     * */
+    public long tryConsume(String key, int capacity, long refillPeriod){
+        if(!properties.enabled()) return 0;
+
+        final long now = System.currentTimeMillis();
+        final Bucket bucket = bucketFor(key, capacity, now);
+        bucket.lastAccess = now;
+        final double refillRate = (double) capacity / refillPeriod;
+
+        State current;
+        State refilled;
+        do {
+            current = bucket.state.get();
+            final double tokens = Math.min(capacity,
+                    current.tokens() + Math.max(0, now - current.lastRefill()) * refillRate);
+            refilled = new State(tokens, Math.max(now, current.lastRefill()));
+            if(tokens < 1){
+                Counter.builder("rate.limit.rejected")
+                        .tag("route", route(key))
+                        .register(meterRegistry)
+                        .increment();
+                return (long) Math.ceil((1 - tokens) / refillRate);
+            }
+        } while(!bucket.state.compareAndSet(current, new State(refilled.tokens() - 1, refilled.lastRefill())));
+        return 0;
+    }
+
+    /**
+     * Función que devuelve un permiso consumido al bucket de la llave indicada, sin
+     * superar su capacidad. Si la llave ya fue desalojada no hace nada.
+     * @param key llave del bucket.
+     * @param capacity capacidad máxima del bucket.
+     * */
+    public void refund(String key, int capacity){
+        if(!properties.enabled()) return;
+
+        final Bucket bucket = buckets.get(key);
+        if(bucket == null) return;
+        bucket.state.updateAndGet(state ->
+                new State(Math.min(capacity, state.tokens() + 1), state.lastRefill()));
+    }
+
+    /**
+     * Función de tarea programada que desaloja las llaves sin uso reciente y, si aún se
+     * supera el máximo, las usadas menos recientemente.
+     * */
+    public void scheduledEviction(){
+        final long now = System.currentTimeMillis();
+        buckets.values().removeIf(bucket -> now - bucket.lastAccess >= properties.idleTimeout());
+        overflow.values().removeIf(bucket -> now - bucket.lastAccess >= properties.idleTimeout());
+
+        final int excess = buckets.size() - properties.maxKeys();
+        if(excess <= 0) return;
+        buckets.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().lastAccess))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(buckets::remove);
+    }
+
+    /**
+     * Función auxiliar. Cantidad actual de llaves en memoria, sin contar los buckets
+     * de desborde.
+     * @return número de llaves.
+     * */
+    public int size(){
+        return buckets.size();
+    }
+
+    /**
+     * Función auxiliar que obtiene el bucket de la llave. Si la llave es nueva y se
+     * alcanzó el máximo de llaves, devuelve el bucket de desborde de su ruta.
+     * */
+    private Bucket bucketFor(String key, int capacity, long now){
+        final Bucket bucket = buckets.get(key);
+        if(bucket != null) return bucket;
+        if(buckets.size() >= properties.maxKeys())
+            return overflow.computeIfAbsent(route(key), k -> new Bucket(capacity, now));
+        return buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+    }
+
+    /**
+     * Función auxiliar que extrae la ruta (prefijo anterior a '|') de la llave.
+     * */
+    private static String route(String key){
+        return key.substring(0, Math.max(0, key.indexOf('|')));
+    }
+}
@@ -0,0 +1,159 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché en memoria (acotada) del estado de los tokens de acceso. Evita consultar
+ * TBDMDETTokens en cada petición autenticada. Las entradas se indexan por el digest
+ * del token (ver TokenDigest), igual que en la BD.
+ * Cada entrada vive como máximo hasta la expiración del JWT o hasta el TTL configurado
+ * (lo que ocurra primero). Al superar el tamaño máximo se desaloja la entrada usada
+ * menos recientemente (LRU).
+ * Toda invalidación incrementa una generación: quien consulta la BD tras un fallo toma la
+ * generación antes de la lectura y su resultado solo se almacena si ninguna invalidación
+ * ocurrió entretanto, de modo que una lectura concurrente con una revocación no vuelva a
+ * cachear el token como vigente.
+ * @author glunah2001
+ * */
+@Component
+@RequiredArgsConstructor
+public class TokenStatusCache {
+
+    private record Entry(long userId, boolean valid, long expiresAt) { }
+
+    @Value("${application.cache.token-status.max-size:10000}")
+    private int maxSize;
+    @Value("${application.cache.token-status.max-ttl:300000}")
+    private long maxTtl;
+
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Object lock = new Object();
+    private Map<String, Entry> entries;
+
+    /**
+     * Función de inicialización. Crea el mapa LRU con el tamaño configurado y registra
+     * los contadores de aciertos, fallos y desalojos.
+     * */
+    @PostConstruct
+    void init(){
+        entries = new LruMap<>(maxSize, evictions::increment);
+
+        FunctionCounter.builder("token.status.cache.hits", hits, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("token.status.cache.misses", misses, LongAdder::sum)
+                .register(meterRegistry);
+        FunctionCounter.builder("token.status.cache.evictions", evictions, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("token.status.cache.size", this, TokenStatusCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Función que consulta el estado de un token en la caché.
+     * @param tokenHash digest del token de acceso recibido.
+     * @return TRUE/FALSE si el estado se encuentra en caché y sigue vigente. NULL en caso
+     * de que se deba consultar la base de datos.
+     * */
+    public Boolean getStatus(String tokenHash){
+        synchronized (lock){
+            var entry = entries.get(tokenHash);
+            if(entry == null){
+                misses.increment();
+                return null;
+            }
+            if(entry.expiresAt() <= System.currentTimeMillis()){
+                entries.remove(tokenHash);
+                evictions.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.valid();
+        }
+    }
+
+    /**
+     * Función que retorna la generación actual de la caché. Debe tomarse antes de consultar
+     * la base de datos y entregarse a put().
+     * @return generación actual.
+     * */
+    public long generation(){
+        return generation.get();
+    }
+
+    /**
+     * Función que almacena el estado de un token recién consultado en la base de datos.
+     * El estado se descarta si alguna invalidación ocurrió después de tomar la generación.
+     * @param tokenHash digest del token de acceso.
+     * @param userId usuario propietario del token (-1 si el token no existe).
+     * @param valid indica si el token está vigente (no revocado ni expirado).
+     * @param jwtExpiration fecha de expiración del JWT.
+     * @param readGeneration generación tomada antes de consultar la base de datos.
+     * */
+    public void put(String tokenHash, long userId, boolean valid, Date jwtExpiration, long readGeneration){
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(now + maxTtl,
+                jwtExpiration != null ? jwtExpiration.getTime() : now);
+        if(expiresAt <= now) return;
+
+        synchronized (lock){
+            if(generation.get() != readGeneration) return;
+            entries.put(tokenHash, new Entry(userId, valid, expiresAt));
+        }
+    }
+
+    /**
+     * Función que invalida un token concreto. Se ejecuta de inmediato y nuevamente
+     * tras el commit de la transacción activa; junto con la generación, impide que una
+     * lectura concurrente vuelva a cachear el estado anterior.
+     * @param tokenHash digest del token a invalidar.
+     * */
+    public void invalidate(String tokenHash){
+        TransactionalInvalidation.runNowAndAfterCommit(() -> {
+            synchronized (lock){
+                generation.incrementAndGet();
+                entries.remove(tokenHash);
+            }
+        });
+    }
+
+    /**
+     * Función que invalida todos los tokens en caché de un usuario.
+     * @param userId identificador del usuario.
+     * */
+    public void invalidateUser(long userId){
+        TransactionalInvalidation.runNowAndAfterCommit(() -> {
+            synchronized (lock){
+                generation.incrementAndGet();
+                entries.values().removeIf(entry -> entry.userId() == userId);
+            }
+        });
+    }
+
+    /**
+     * Función auxiliar. Cantidad actual de entradas en caché.
+     * @return número de entradas.
+     * */
+    public int size(){
+        synchronized (lock){
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Clase utilitaria para invalidar cachés en memoria desde código transaccional. La
+ * invalidación se ejecuta de inmediato y, si existe una transacción activa, se repite
+ * tras su commit: una lectura concurrente que aún vea los datos anteriores a la escritura
+ * no puede dejarlos en caché una vez confirmada.
+ * @author glunah2001
+ * */
+public final class TransactionalInvalidation {
+
+    private TransactionalInvalidation(){ }
+
+    /**
+     * Función que ejecuta una invalidación y, si existe una transacción activa, la repite
+     * una vez confirmada.
+     * @param invalidation operación de invalidación.
+     * */
+    public static void runNowAndAfterCommit(Runnable invalidation){
+        invalidation.run();
+        if(!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+}
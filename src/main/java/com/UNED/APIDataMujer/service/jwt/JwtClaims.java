@@ -0,0 +1,50 @@
+package com.UNED.APIDataMujer.service.jwt;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * Representación inmutable del payload de un JWT cuya firma y expiración ya
+ * fueron verificadas. Se obtiene una única vez por petición para evitar volver
+ * a parsear el token en cada consulta.
+ * @author glunah2001
+ * @see JwtService
+ * */
+public record JwtClaims(
+        String tokenId,
+        Long userId,
+        String username,
+        String role,
+        String personType,
+        Date issuedAt,
+        Date expiration,
+        Long epoch
+) {
+
+    /**
+     * Función de fábrica. Copia los datos necesarios desde el payload parseado por jjwt.
+     * @param claims payload ya verificado.
+     * @return claims inmutables del token.
+     * */
+    static JwtClaims from(Claims claims){
+        return new JwtClaims(
+                claims.getId(),
+                claims.get("uid", Long.class),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                claims.get("personType", String.class),
+                claims.getIssuedAt(),
+                claims.getExpiration(),
+                claims.get("epoch", Long.class)
+        );
+    }
+
+    /**
+     * Función que indica si el token ya caducó al momento de la consulta.
+     * @return booleano. Está o no está expirado.
+     * */
+    public boolean isExpired(){
+        return expiration == null || expiration.before(new Date());
+    }
+}
@@ -0,0 +1,195 @@
+package com.UNED.APIDataMujer.service.jwt;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proveedor de llaves para el modo de firma asimétrica (ECDSA o EdDSA) de los JWT.
+ * Las llaves se cargan de un almacén PKCS12: cada alias con llave privada es una llave de
+ * verificación publicada en el JWKS y su alias se usa como "kid". Solo el alias activo
+ * firma tokens nuevos, por lo que rotar consiste en agregar un alias y activarlo; los
+ * tokens firmados con llaves anteriores siguen siendo válidos mientras su alias exista.
+ * @author glunah2001
+ * */
+@Component
+@RequiredArgsConstructor
+public class JwtKeyProvider {
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    @Value("${application.spring.security.signing.mode:hmac}")
+    private String signingMode;
+    @Value("${application.spring.security.signing.keystore.location:}")
+    private String keystoreLocation;
+    @Value("${application.spring.security.signing.keystore.password:}")
+    private String keystorePassword;
+    @Value("${application.spring.security.signing.active-kid:}")
+    private String activeKid;
+
+    private final ResourceLoader resourceLoader;
+
+    private PrivateKey signingKey;
+    private Map<String, PublicKey> verificationKeys = Map.of();
+    private Map<String, Object> jwks = Map.of("keys", List.of());
+
+    /**
+     * Función de inicialización. Carga el almacén de llaves y construye el JWKS una única vez.
+     * @throws IllegalStateException en caso de que el almacén o el alias activo no sean válidos.
+     * */
+    @PostConstruct
+    void init(){
+        if(!isEnabled()) return;
+
+        final KeyStore keyStore = loadKeyStore();
+        final char[] password = keystorePassword.toCharArray();
+        final Map<String, PublicKey> keys = new HashMap<>();
+        final List<Map<String, Object>> jwkList = new ArrayList<>();
+
+        try{
+            for(String alias : Collections.list(keyStore.aliases())){
+                if(!keyStore.isKeyEntry(alias)) continue;
+                final var certificate = keyStore.getCertificate(alias);
+                if(certificate == null) continue;
+
+                final PublicKey publicKey = certificate.getPublicKey();
+                keys.put(alias, publicKey);
+                jwkList.add(toJwk(alias, publicKey));
+
+                if(alias.equals(activeKid))
+                    signingKey = (PrivateKey) keyStore.getKey(alias, password);
+            }
+        }catch (GeneralSecurityException ex){
+            throw new IllegalStateException("No se pudieron leer las llaves de firma de los JWT.", ex);
+        }
+
+        if(signingKey == null)
+            throw new IllegalStateException("El alias activo '"+activeKid+"' no existe en el " +
+                    "almacén de llaves de firma.");
+
+        verificationKeys = Map.copyOf(keys);
+        jwks = Map.of("keys", List.copyOf(jwkList));
+    }
+
+    /**
+     * Función que indica si el modo de firma asimétrica está habilitado.
+     * @return booleano de confirmación o negación.
+     * */
+    public boolean isEnabled(){
+        return "asymmetric".equalsIgnoreCase(signingMode);
+    }
+
+    /**
+     * @return identificador (kid) de la llave con la que se firman los tokens nuevos.
+     * */
+    public String activeKeyId(){
+        return activeKid;
+    }
+
+    /**
+     * @return llave privada activa de firma.
+     * */
+    public PrivateKey signingKey(){
+        return signingKey;
+    }
+
+    /**
+     * Función que localiza la llave pública de verificación según el "kid" del token.
+     * @param kid identificador de la llave.
+     * @return llave pública o NULL si no existe.
+     * */
+    public PublicKey verificationKey(String kid){
+        return kid == null ? null : verificationKeys.get(kid);
+    }
+
+    /**
+     * @return JWK Set (RFC 7517) con todas las llaves públicas de verificación.
+     * */
+    public Map<String, Object> jwks(){
+        return jwks;
+    }
+
+    /**
+     * Función auxiliar que carga el almacén PKCS12 configurado.
+     * @return almacén de llaves.
+     * */
+    private KeyStore loadKeyStore(){
+        try(InputStream in = resourceLoader.getResource(keystoreLocation).getInputStream()){
+            final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, keystorePassword.toCharArray());
+            return keyStore;
+        }catch (IOException | GeneralSecurityException ex){
+            throw new IllegalStateException("No se pudo cargar el almacén de llaves de firma: "+
+                    keystoreLocation, ex);
+        }
+    }
+
+    /**
+     * Función auxiliar que representa una llave pública como JWK.
+     * @param kid identificador de la llave.
+     * @param publicKey llave pública (EC o Ed25519).
+     * @return JWK en forma de mapa.
+     * @throws IllegalStateException en caso de que el tipo de llave no sea soportado.
+     * */
+    private Map<String, Object> toJwk(String kid, PublicKey publicKey){
+        final Map<String, Object> jwk = new LinkedHashMap<>();
+        if(publicKey instanceof ECPublicKey ec){
+            final int fieldSize = ec.getParams().getCurve().getField().getFieldSize();
+            final int length = (fieldSize + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", switch (fieldSize){
+                case 256 -> "P-256";
+                case 384 -> "P-384";
+                case 521 -> "P-521";
+                default -> throw new IllegalStateException("Curva EC no soportada: "+fieldSize);
+            });
+            jwk.put("x", BASE64_URL.encodeToString(unsigned(ec.getW().getAffineX(), length)));
+            jwk.put("y", BASE64_URL.encodeToString(unsigned(ec.getW().getAffineY(), length)));
+            jwk.put("alg", fieldSize == 521 ? "ES512" : "ES" + fieldSize);
+        }else if("Ed25519".equals(publicKey.getAlgorithm()) || "EdDSA".equals(publicKey.getAlgorithm())){
+            final byte[] encoded = publicKey.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", BASE64_URL.encodeToString(
+                    Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+            jwk.put("alg", "EdDSA");
+        }else{
+            throw new IllegalStateException("Tipo de llave no soportado para firmar JWT: "+
+                    publicKey.getAlgorithm());
+        }
+        jwk.put("use", "sig");
+        jwk.put("kid", kid);
+        return jwk;
+    }
+
+    /**
+     * Función auxiliar que convierte una coordenada a bytes sin signo de longitud fija.
+     * */
+    private static byte[] unsigned(BigInteger value, int length){
+        final byte[] bytes = value.toByteArray();
+        if(bytes.length == length) return bytes;
+        final byte[] result = new byte[length];
+        final int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, result, length - copy, copy);
+        return result;
+    }
+}
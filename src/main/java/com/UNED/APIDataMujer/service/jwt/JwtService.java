@@ -2,9 +2,13 @@ package com.UNED.APIDataMujer.service.jwt;
 
 import com.UNED.APIDataMujer.entity.User;
 
+import java.util.Map;
+import java.util.Optional;
+
 public interface JwtService {
     String generateAccessToken(User user);
     String generateRefreshToken(User user);
-    String getUsername(String token);
-    boolean isTokenValid(String token, User user);
+    Optional<JwtClaims> verifyToken(String token);
+    boolean isTokenValid(JwtClaims claims, User user);
+    Map<String, Object> getJwks();
 }
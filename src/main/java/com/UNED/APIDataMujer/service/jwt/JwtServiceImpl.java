@@ -1,16 +1,21 @@
 package com.UNED.APIDataMujer.service.jwt;
 
 import com.UNED.APIDataMujer.entity.User;
-import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -29,6 +34,34 @@ public class JwtServiceImpl implements JwtService{
     @Value("${application.spring.security.refresh-expiration}")
     private long refreshExpiration;
 
+    private final JwtKeyProvider jwtKeyProvider;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Función de inicialización. Decodifica la llave secreta y construye el parser
+     * una única vez, ya que ambos son inmutables y seguros entre hilos.
+     * En modo de firma asimétrica la llave de verificación se localiza según el "kid"
+     * del token.
+     * */
+    @PostConstruct
+    void init(){
+        if(jwtKeyProvider.isEnabled()){
+            jwtParser = Jwts.parser()
+                    .keyLocator(header -> header instanceof ProtectedHeader protectedHeader ?
+                            jwtKeyProvider.verificationKey(protectedHeader.getKeyId()) : null)
+                    .build();
+            return;
+        }
+
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signingKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     /**
      * Función de interfaz que permite obtener desde otras clases el token de ACCESO.
      * @param user usuario al que pertenece el token.
@@ -50,27 +83,40 @@ public class JwtServiceImpl implements JwtService{
     }
 
     /**
-     * Función de interfaz que permite obtener el username del propietario desde un token.
+     * Función de interfaz que parsea y verifica (firma y expiración) un JWT una única vez.
      * @param token se trata del JWT recibido.
-     * @return Username del usuario sacado desde el JWT.
+     * @return claims verificados del token o vacío si el token es inválido, está
+     * corrupto o ya expiró.
      * */
     @Override
-    public String getUsername(final String token) {
-        return getPayload(token)
-                .getSubject();
+    public Optional<JwtClaims> verifyToken(final String token) {
+        try{
+            var claims = jwtParser.parseSignedClaims(token).getPayload();
+            return Optional.of(JwtClaims.from(claims));
+        }catch (JwtException | IllegalArgumentException ex){
+            return Optional.empty();
+        }
     }
 
     /**
-     * Función de interfaz encargada de verificar que un JWT creado no esté expirado
-     * según y que pertenezca al usuario que lo porta.
-     * @param token JWT recibido de la que se examina la fecha de expiración del payload.
+     * Función de interfaz encargada de verificar que los claims de un JWT no estén expirados
+     * y que pertenezcan al usuario que lo porta.
+     * @param claims claims ya verificados del JWT.
      * @param user usuario que porta el token.
      * @return booleano que indica si el token es o no es válido.
      * */
     @Override
-    public boolean isTokenValid(final String token, final User user) {
-        var username = getUsername(token);
-        return username.equals(user.getUsername()) && !isTokenExpired(getExpiration(token));
+    public boolean isTokenValid(final JwtClaims claims, final User user) {
+        return user.getUsername().equals(claims.username()) && !claims.isExpired();
+    }
+
+    /**
+     * Función de interfaz que retorna las llaves públicas de verificación.
+     * @return JWK Set. Vacío si la firma asimétrica no está habilitada.
+     * */
+    @Override
+    public Map<String, Object> getJwks() {
+        return jwtKeyProvider.jwks();
     }
 
     /**
@@ -80,58 +126,23 @@ public class JwtServiceImpl implements JwtService{
      * @return retorna un JWT firmado y con su respectivo payload.
      * */
     private String buildToken(final User user, long expiration){
-        return Jwts.builder()
+        final var builder = Jwts.builder();
+        if(jwtKeyProvider.isEnabled()){
+            builder.header().keyId(jwtKeyProvider.activeKeyId()).and()
+                    .signWith(jwtKeyProvider.signingKey());
+        }else{
+            builder.signWith(signingKey);
+        }
+
+        return builder
                 .subject((user.getUsername()))
                 .id(UUID.randomUUID().toString())
+                .claim("uid", user.getId())
+                .claim("epoch", user.getTokenEpoch())
                 .claim("role", user.getRole().name())
                 .claim("personType", user.getPerson().getPersonType().name())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis()+expiration))
-                .signWith(getSecretKey())
                 .compact();
     }
-
-    /**
-     * Función auxiliar. Se encarga de separar y hacer legible su payload.
-     * @param token JWT al que se le extraerá el payload
-     * @return objeto Claims que contiene el payload del token.
-     * */
-    private Claims getPayload(final String token){
-        return Jwts.parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    /**
-     * Función auxiliar. Se encarga de dar la llave secreta con la que se
-     * firman los JWT. BAJO NINGÚN MOTIVO REVELAR LLAVE SECRETA.
-     * @return llave secreta utilizada para la firma de tokens.
-     * */
-    private SecretKey getSecretKey(){
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    /**
-     * Función auxiliar. Basándonos en el payload, extrae la fecha de expiración
-     * del JWT.
-     * @param token JWT del cual extraer la fecha.
-     * @return fecha de expiración del JWT.
-     * */
-    private Date getExpiration(final String token){
-        return getPayload(token)
-                .getExpiration();
-    }
-
-    /**
-     * Función auxiliar. Con base en la fecha de expiración calcula si el token
-     * está o no está caducado.
-     * @param expiration fecha de expiración sacada del JWT.
-     * @return booleano. Está o no está expirado.
-     * */
-    private boolean isTokenExpired(Date expiration) {
-        return expiration.before((new Date()));
-    }
 }
@@ -3,7 +3,6 @@ package com.UNED.APIDataMujer.service.registration;
 import com.UNED.APIDataMujer.entity.Token;
 import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.TokenType;
-import com.UNED.APIDataMujer.repository.TokenRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
 import com.UNED.APIDataMujer.service.emailing.EmailSendingService;
 
@@ -22,7 +21,6 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 @RequiredArgsConstructor
 public class ActivationService {
-    private final TokenRepository tokenRepository;
     private final UserRepository userRepository;
 
     private final EmailSendingService emailSendingService;
@@ -30,6 +28,8 @@ public class ActivationService {
 
     @Value("${app.base-url}")
     private String baseUrl;
+    @Value("${application.tokens.activation.expiration:86400000}")
+    private long activationExpiration;
 
     /**
      * Función principal del proceso. Es la función encargada de ejecutar la activación
@@ -40,7 +40,7 @@ public class ActivationService {
      * */
     @Transactional
     public void activateAccount(final String tokenValue) {
-        Token token = tokenRepository.findByToken(tokenValue)
+        Token token = tokenService.findByValue(tokenValue)
                 .orElseThrow(() -> new IllegalArgumentException("Su token de activación es inexistente."));
 
         if(token.isExpired() || token.isRevoked()){
@@ -62,16 +62,19 @@ public class ActivationService {
     /**
      * Función inicial del proceso de activación de cuentas. Se encarga de crear el
      * token de activación y generar un correo que redirija al usuario a
-     * dicha operación.
+     * dicha operación. Si el usuario solicitó un token hace muy poco y aún es vigente,
+     * no se emite uno nuevo ni se reenvía el correo; en otro caso el token nuevo
+     * invalida al anterior.
      * @param user El usuario cuya cuenta está inactiva y se le debe ejecutar esta
      *             operación.
      * */
     public void generateActivationToken(final User user) {
+        if(!tokenService.tryIssue(user, TokenType.ACTIVATION)) return;
+
         tokenService.revokeAllActiveTokens(user);
 
-        long expiration = 24 * 60 * 60 * 1000;
-        final String activationToken = tokenService.generateToken(expiration);
-        tokenService.saveToken(activationToken, user, TokenType.ACTIVATION);
+        final String activationToken = tokenService.generateToken(activationExpiration);
+        tokenService.saveToken(activationToken, user, TokenType.ACTIVATION, activationExpiration);
 
         //String activationLink = "http://localhost:8080/activate?token=" + activationToken;
         String activationLink = String.format("%s/activate?token=%s", baseUrl, activationToken);
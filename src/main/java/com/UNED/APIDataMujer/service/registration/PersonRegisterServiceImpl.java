@@ -15,6 +15,8 @@ import com.UNED.APIDataMujer.mapper.UserMapper;
 import com.UNED.APIDataMujer.repository.LegalPersonRepository;
 import com.UNED.APIDataMujer.repository.PhysicalPersonRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
+import com.UNED.APIDataMujer.service.resource.PaymentSummaryService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -37,6 +39,8 @@ public class PersonRegisterServiceImpl implements PersonRegisterService {
     private final UserMapper userMapper;
 
     private final ActivationService activationService;
+    private final PaymentSummaryService paymentSummaryService;
+    private final CountCache countCache;
 
     private record CommonRegisterResult(User user, Person person){};
 
@@ -56,6 +60,7 @@ public class PersonRegisterServiceImpl implements PersonRegisterService {
 
         var legalPerson = personMapper.toEntity(person, legalPersonRegisterDTO);
         LegalPerson registeredlegalPerson = legalPersonRepository.save(legalPerson);
+        countCache.invalidate(CountCache.Scope.PERSON);
 
         activationService.generateActivationToken(user);
 
@@ -78,6 +83,7 @@ public class PersonRegisterServiceImpl implements PersonRegisterService {
 
         var physicalPerson = personMapper.toEntity(person, physicalRegisterDTO);
         PhysicalPerson registeredPhysicalPerson = physicalPersonRepository.save(physicalPerson);
+        countCache.invalidate(CountCache.Scope.PERSON);
 
         activationService.generateActivationToken(user);
 
@@ -85,7 +91,8 @@ public class PersonRegisterServiceImpl implements PersonRegisterService {
     }
 
     /**
-     * Función auxiliar encargada del registro de los datos comunes (usuario y persona abstracta).
+     * Función auxiliar encargada del registro de los datos comunes (usuario y persona abstracta)
+     * y del resumen de pagos vacío del usuario.
      * @param commonDto datos comunes almacenados en un dto.
      * @param personType distintivo para el tipo de persona que se está manejando en este caso.
      * @return record privado que contiene al usuario registrado y su persona en abstracto.
@@ -95,6 +102,7 @@ public class PersonRegisterServiceImpl implements PersonRegisterService {
 
         var user = userMapper.toEntity(person, commonDto);
         User registeredUser = userRepository.save(user);
+        paymentSummaryService.createFor(registeredUser.getId());
 
         return new CommonRegisterResult(registeredUser, person);
     }
@@ -1,14 +1,16 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.ActivityRegisterDTO;
 import com.UNED.APIDataMujer.dto.response.ActivityDTO;
 import com.UNED.APIDataMujer.entity.Activity;
-import org.springframework.security.core.Authentication;
+import com.UNED.APIDataMujer.entity.User;
 
 public interface ActivityService {
     ActivityDTO createNewActivity(ActivityRegisterDTO dto);
     ActivityDTO getActivityDto(long id);
-    SimplePage<ActivityDTO> getAllActiveActivities(int page);
-    void deleteActivity(long id, Authentication auth);
+    SimplePage<ActivityDTO> getAllActiveActivities(int page, boolean includeTotal);
+    CursorPage<ActivityDTO> getAllActiveActivities(String cursor);
+    void deleteActivity(long id, User user);
 }
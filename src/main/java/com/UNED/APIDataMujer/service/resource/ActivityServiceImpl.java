@@ -1,26 +1,30 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.ActivityRegisterDTO;
 import com.UNED.APIDataMujer.dto.response.ActivityDTO;
-import com.UNED.APIDataMujer.entity.Activity;
+import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.Role;
 import com.UNED.APIDataMujer.exception.BusinessValidationException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
 import com.UNED.APIDataMujer.mapper.ActivityMapper;
+import com.UNED.APIDataMujer.mapper.KeysetCursor;
 import com.UNED.APIDataMujer.mapper.PaginationUtil;
 import com.UNED.APIDataMujer.repository.ActivityRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.function.Function;
 
 /**
  * Clase encargada de gestionar la lógica de negocio relacionada con
@@ -34,8 +38,8 @@ public class ActivityServiceImpl implements ActivityService {
 
     private final ActivityMapper activityMapper;
     private final ActivityRepository activityRepository;
+    private final CountCache countCache;
 
-    private final UserService userService;
     private final VolunteeringService volunteeringService;
 
     /**
@@ -67,6 +71,7 @@ public class ActivityServiceImpl implements ActivityService {
 
         var newActivity = activityMapper.toEntity(dto);
         final var activity = activityRepository.save(newActivity);
+        countCache.invalidate(CountCache.Scope.ACTIVITY);
 
         volunteeringService.createOrganizerVolunteering(dto.username(), activity, startDate, endDate);
 
@@ -90,13 +95,36 @@ public class ActivityServiceImpl implements ActivityService {
     /**
      * Función de interfaz que recupera todas las actividades no clausuradas y las numera.
      * @param page indicador de paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return página con metadata simple de las actividades.
      * */
     @Override
-    public SimplePage<ActivityDTO> getAllActiveActivities(int page) {
+    @Transactional(readOnly = true)
+    public SimplePage<ActivityDTO> getAllActiveActivities(int page, boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25, Sort.by("startDate").ascending());
-        Page<Activity> activities = activityRepository.findByIsFinalizedFalse(pageable);
-        return PaginationUtil.wrapInPage(activities, activityMapper::toDto);
+        Slice<ActivityDTO> activities = activityRepository.findActiveDtos(pageable);
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.ACTIVITY, "active", activityRepository::countActive) :
+                null;
+        return PaginationUtil.wrapInPage(activities, total);
+    }
+
+    /**
+     * Función de interfaz que recupera las actividades no clausuradas paginando por keyset
+     * (fecha de inicio e id), sin contar el total ni saltar filas con OFFSET.
+     * @param cursor cursor de la última actividad entregada. Vacío para la primera página.
+     * @return página con las actividades y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ActivityDTO> getAllActiveActivities(String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var activities = activityRepository.findActiveDtosAfter(
+                after == null ? null : after.dateTimeKey(),
+                after == null ? 0 : after.id(),
+                Limit.of(26));
+        return PaginationUtil.wrapInCursorPage(activities, 25, Function.identity(),
+                a -> KeysetCursor.of(a.startDate(), a.id()));
     }
 
     /**
@@ -104,19 +132,17 @@ public class ActivityServiceImpl implements ActivityService {
      * 1. El usuario es administrador del sistema.
      * 2. Si el usuario no es administrador, debe ser el organizador de la actividad.
      * @param id identificador de la actividad.
-     * @param auth credenciales de la actividad.
+     * @param user usuario autenticado que realiza la petición.
      * @throws ResourceNotFoundException en caso de que la actividad no sea encontrada por id.
      * @throws BusinessValidationException en caso de que el usuario no sea organizador ni administrador del sistema.
      * */
     @Override
     @Transactional
-    public void deleteActivity(long id, final Authentication auth) {
+    public void deleteActivity(long id, final User user) {
         final var activity = activityRepository.findById(id)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("La actividad con id "+id+" no se ha encontrado."));
 
-        final var user = userService.getMyUser(auth);
-
         if(user.getRole() != Role.ROLE_ADMIN &&
                 !volunteeringService.isUserOrganizer(activity.getId(), user.getId())){
             throw new BusinessValidationException("Únicamente el organizador principal o un administrador " +
@@ -124,5 +150,8 @@ public class ActivityServiceImpl implements ActivityService {
         }
 
         activityRepository.delete(activity);
+        countCache.invalidate(CountCache.Scope.ACTIVITY,
+                CountCache.Scope.VOLUNTEERING,
+                CountCache.Scope.PARTICIPATION);
     }
 }
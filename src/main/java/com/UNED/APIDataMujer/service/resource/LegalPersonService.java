@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.LegalPersonUpdateDTO;
 import com.UNED.APIDataMujer.dto.response.LegalPersonDTO;
@@ -7,7 +8,8 @@ import com.UNED.APIDataMujer.entity.User;
 
 public interface LegalPersonService {
     LegalPersonDTO getPersonByLegalId(String legalId);
-    SimplePage<LegalPersonDTO> getPersonByBusinessName(String name, int page);
+    SimplePage<LegalPersonDTO> getPersonByBusinessName(String name, int page, boolean includeTotal);
+    CursorPage<LegalPersonDTO> getPersonByBusinessName(String name, String cursor);
     LegalPersonDTO updateMyLegalProfile(User user,
                                         LegalPersonUpdateDTO dto);
     LegalPersonDTO toDto(User user);
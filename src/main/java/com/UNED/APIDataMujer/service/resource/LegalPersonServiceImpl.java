@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.LegalPersonUpdateDTO;
 import com.UNED.APIDataMujer.dto.response.LegalPersonDTO;
@@ -7,17 +8,25 @@ import com.UNED.APIDataMujer.entity.LegalPerson;
 import com.UNED.APIDataMujer.entity.Person;
 import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.mapper.KeysetCursor;
 import com.UNED.APIDataMujer.mapper.PaginationUtil;
 import com.UNED.APIDataMujer.mapper.PersonMapper;
 import com.UNED.APIDataMujer.repository.LegalPersonRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * Clase de servicio exclusiva de los usuarios que son personas jurídicas.
  * @author glunah2001
@@ -29,6 +38,7 @@ public class LegalPersonServiceImpl implements LegalPersonService{
 
     private final UserRepository userRepository;
     private final LegalPersonRepository legalPersonRepository;
+    private final CountCache countCache;
     private final PersonMapper personMapper;
 
     /**
@@ -54,16 +64,43 @@ public class LegalPersonServiceImpl implements LegalPersonService{
      * nombre de negocio.
      * @param name nombre del negocio.
      * @param page indicador de paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return paginación de las personas jurídicas según el nombre indicado.
      * */
     @Override
-    public SimplePage<LegalPersonDTO> getPersonByBusinessName(String name, int page) {
+    public SimplePage<LegalPersonDTO> getPersonByBusinessName(String name, int page, boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25, Sort.by("id"));
         var businessNameSearch = legalPersonRepository.findByBusinessNameContainingIgnoreCase(name, pageable);
 
-        return PaginationUtil.wrapInPage(businessNameSearch,
+        final var users = getUsersByPersons(businessNameSearch.getContent());
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PERSON, "business|" + name.toLowerCase(),
+                        () -> legalPersonRepository.countByBusinessNameContainingIgnoreCase(name)) :
+                null;
+        return PaginationUtil.wrapInPage(businessNameSearch, total,
+                lp -> personMapper.toDto(
+                        getUser(users, lp.getId()), lp));
+    }
+
+    /**
+     * Función de interfaz. Variante por keyset (id) de la búsqueda de personas jurídicas
+     * según su razón social.
+     * @param name razón social de las personas.
+     * @param cursor cursor de la última persona entregada. Vacío para la primera página.
+     * @return página de personas jurídicas y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<LegalPersonDTO> getPersonByBusinessName(String name, String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var businessNameSearch = legalPersonRepository.findByBusinessNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                name, after == null ? 0 : after.id(), Limit.of(26));
+
+        final var users = getUsersByPersons(businessNameSearch);
+        return PaginationUtil.wrapInCursorPage(businessNameSearch, 25,
                 lp -> personMapper.toDto(
-                        getUserByPerson(lp.getPerson()), lp));
+                        getUser(users, lp.getId()), lp),
+                lp -> KeysetCursor.of(lp.getId()));
     }
 
     /**
@@ -81,6 +118,7 @@ public class LegalPersonServiceImpl implements LegalPersonService{
         legalPerson.setBusinessName(dto.businessName());
         legalPerson.setFoundationDate(dto.foundationDate());
         var updatedLegalPerson = legalPersonRepository.save(legalPerson);
+        countCache.invalidate(CountCache.Scope.PERSON);
 
         return personMapper.toDto(user, updatedLegalPerson);
     }
@@ -126,4 +164,35 @@ public class LegalPersonServiceImpl implements LegalPersonService{
                                 "de su persona.")
                 );
     }
+
+    /**
+     * Función auxiliar encargada de recuperar en una única consulta los usuarios de todas
+     * las personas de una página, indexados por el id de su persona abstracta.
+     * @param persons personas de la página recuperadas de la bd.
+     * @return mapa id de persona - usuario.
+     * */
+    private Map<Long, User> getUsersByPersons(List<LegalPerson> persons){
+        final var personIds = persons.stream()
+                .map(LegalPerson::getId)
+                .toList();
+        if(personIds.isEmpty()) return Map.of();
+
+        return userRepository.findByPersonIdIn(personIds).stream()
+                .collect(Collectors.toMap(user -> user.getPerson().getId(), Function.identity()));
+    }
+
+    /**
+     * Función auxiliar encargada de obtener del mapa precargado el usuario de una persona.
+     * @param users usuarios indexados por el id de su persona abstracta.
+     * @param personId id de la persona abstracta.
+     * @return User de la persona asociada.
+     * @throws ResourceNotFoundException en caso de que no se encuentre al usuario asociado.
+     * */
+    private User getUser(Map<Long, User> users, long personId){
+        final var user = users.get(personId);
+        if(user == null)
+            throw new ResourceNotFoundException("No es posible recuperar información " +
+                    "de su persona.");
+        return user;
+    }
 }
@@ -1,17 +1,22 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.ParticipationWrapperDTO;
+import com.UNED.APIDataMujer.dto.response.ParticipationBatchDTO;
 import com.UNED.APIDataMujer.dto.response.ParticipationDTO;
-import org.springframework.security.core.Authentication;
+import com.UNED.APIDataMujer.entity.User;
 
 public interface ParticipationService {
     ParticipationDTO getParticipation(long participationId);
-    SimplePage<ParticipationDTO> getActivityParticipation(Authentication auth, long activityId, int page);
-    SimplePage<ParticipationDTO> getMyParticipations(Authentication authentication, int page);
-    ParticipationDTO createMyParticipation(Authentication auth, long activityId);
-    long createParticipations(Authentication auth,ParticipationWrapperDTO dto);
-    ParticipationDTO updateStartDate(Authentication auth, long participationId);
-    ParticipationDTO cancelParticipation(Authentication auth, long participationId);
-    void deleteParticipation(Authentication auth, long participationId);
+    SimplePage<ParticipationDTO> getActivityParticipation(User user, long activityId, int page,
+                                                          boolean includeTotal);
+    CursorPage<ParticipationDTO> getActivityParticipation(User user, long activityId, String cursor);
+    SimplePage<ParticipationDTO> getMyParticipations(User user, int page, boolean includeTotal);
+    CursorPage<ParticipationDTO> getMyParticipations(User user, String cursor);
+    ParticipationDTO createMyParticipation(User user, long activityId);
+    ParticipationBatchDTO createParticipations(User user, ParticipationWrapperDTO dto);
+    ParticipationDTO updateStartDate(User user, long participationId);
+    ParticipationDTO cancelParticipation(User user, long participationId);
+    void deleteParticipation(User user, long participationId);
 }
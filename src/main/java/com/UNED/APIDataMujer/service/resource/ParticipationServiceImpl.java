@@ -1,29 +1,43 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.ParticipationWrapperDTO;
+import com.UNED.APIDataMujer.dto.response.ParticipationBatchDTO;
 import com.UNED.APIDataMujer.dto.response.ParticipationDTO;
+import com.UNED.APIDataMujer.dto.response.ParticipationResultDTO;
+import com.UNED.APIDataMujer.entity.Activity;
 import com.UNED.APIDataMujer.entity.Participation;
 import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.ParticipationState;
+import com.UNED.APIDataMujer.enums.RegistrationResult;
 import com.UNED.APIDataMujer.enums.Role;
 import com.UNED.APIDataMujer.exception.BusinessValidationException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.mapper.KeysetCursor;
 import com.UNED.APIDataMujer.mapper.PaginationUtil;
 import com.UNED.APIDataMujer.mapper.ParticipationMapper;
 import com.UNED.APIDataMujer.repository.ActivityRepository;
 import com.UNED.APIDataMujer.repository.ParticipationRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +48,9 @@ public class ParticipationServiceImpl implements ParticipationService{
     private final ParticipationMapper participationMapper;
     private final ActivityRepository activityRepository;
     private final ParticipationRepository participationRepository;
+    private final CountCache countCache;
+
+    private record RegistrationOutcome(String username, RegistrationResult result, Participation participation) { }
 
 
     /**
@@ -47,50 +64,109 @@ public class ParticipationServiceImpl implements ParticipationService{
         return participationMapper.toDto(participation);
     }
 
+    /**
+     * Función de interfaz encargada de obtener las participaciones de una actividad.
+     * @param user usuario autenticado que realiza la petición.
+     * @param activityId identificador de la actividad.
+     * @param page paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
+     * @return paginación de las participaciones.
+     * */
     @Override
-    public SimplePage<ParticipationDTO> getActivityParticipation(final Authentication auth,
+    @Transactional(readOnly = true)
+    public SimplePage<ParticipationDTO> getActivityParticipation(final User user,
                                                                  long activityId,
-                                                                 int page) {
-
-        final var user = userService.getMyUser(auth);
-
-        if(!activityRepository.existsById(activityId))
-            throw new ResourceNotFoundException("La actividad "+activityId+" no existe");
+                                                                 int page,
+                                                                 boolean includeTotal) {
 
-        if(!volunteeringService.isUserOrganizer(activityId, user.getId()) &&
-                user.getRole() != Role.ROLE_ADMIN)
-            throw new BusinessValidationException("La actividad "+activityId+" y sus participaciones no " +
-                    "pueden ser consultadas por su persona");
+        canSeeActivityParticipation(user, activityId);
 
         Pageable pageable = PageRequest.of(page, 25, Sort.by("registrationDate").ascending());
-        var participation = participationRepository.findByActivityId(activityId, pageable);
-        return PaginationUtil.wrapInPage(participation, participationMapper::toDto);
+        var participation = participationRepository.findDtosByActivityId(activityId, pageable);
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PARTICIPATION, "activity|" + activityId,
+                        () -> participationRepository.countByActivityId(activityId)) :
+                null;
+        return PaginationUtil.wrapInPage(participation, total);
+    }
+
+    /**
+     * Función de interfaz. Variante por keyset (fecha de registro e id) de las
+     * participaciones de una actividad.
+     * @param user usuario autenticado que realiza la petición.
+     * @param activityId identificador de la actividad.
+     * @param cursor cursor de la última participación entregada. Vacío para la primera página.
+     * @return página de participaciones y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ParticipationDTO> getActivityParticipation(final User user,
+                                                                 long activityId,
+                                                                 String cursor) {
+        canSeeActivityParticipation(user, activityId);
+
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var participation = participationRepository.findDtosByActivityIdAfter(activityId,
+                after == null ? null : after.dateKey(),
+                after == null ? 0 : after.id(),
+                Limit.of(26));
+        return PaginationUtil.wrapInCursorPage(participation, 25, Function.identity(),
+                p -> KeysetCursor.of(p.registerDate(), p.id()));
     }
 
     /**
      * Función de interfaz encargada de obtener todas las participaciones no canceladas de
      * actividades no finalizadas.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param page paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return paginación de las participaciones.
      * */
     @Override
-    public SimplePage<ParticipationDTO> getMyParticipations(final Authentication auth,
-                                                            int page) {
-        final var user = userService.getMyUser(auth);
-
+    @Transactional(readOnly = true)
+    public SimplePage<ParticipationDTO> getMyParticipations(final User user,
+                                                            int page,
+                                                            boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25, Sort.by("registrationDate").ascending());
-        Page<Participation> participation = participationRepository
-                .findByUserIdAndActivityIsFinalizedFalseAndStatusNot(user.getId(),
+        Slice<ParticipationDTO> participation = participationRepository
+                .findActiveDtosByUserId(user.getId(),
                         ParticipationState.CANCELADO,
                         pageable);
 
-        return PaginationUtil.wrapInPage(participation, participationMapper::toDto);
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PARTICIPATION, "active|" + user.getId(),
+                        () -> participationRepository.countActiveByUserId(user.getId(),
+                                ParticipationState.CANCELADO)) :
+                null;
+        return PaginationUtil.wrapInPage(participation, total);
+    }
+
+    /**
+     * Función de interfaz. Variante por keyset (fecha de registro e id) de las participaciones
+     * no canceladas de actividades no finalizadas.
+     * @param user usuario autenticado que realiza la petición.
+     * @param cursor cursor de la última participación entregada. Vacío para la primera página.
+     * @return página de participaciones y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ParticipationDTO> getMyParticipations(final User user,
+                                                            String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var participation = participationRepository
+                .findActiveDtosByUserIdAfter(user.getId(),
+                        ParticipationState.CANCELADO,
+                        after == null ? null : after.dateKey(),
+                        after == null ? 0 : after.id(),
+                        Limit.of(26));
+
+        return PaginationUtil.wrapInCursorPage(participation, 25, Function.identity(),
+                p -> KeysetCursor.of(p.registerDate(), p.id()));
     }
 
     /**
      * Función de interfaz encargada de crear una nueva participación para una actividad.
-     * @param auth credenciales
+     * @param user usuario autenticado que realiza la petición.
      * @param activityId identificador de la actividad
      * @return datos de la participación
      * @throws ResourceNotFoundException en caso de que la actividad no sea encontrada.
@@ -99,23 +175,23 @@ public class ParticipationServiceImpl implements ParticipationService{
      * */
     @Override
     @Transactional
-    public ParticipationDTO createMyParticipation(final Authentication auth, long activityId) {
-        final var user = userService.getMyUser(auth);
+    public ParticipationDTO createMyParticipation(final User user, long activityId) {
         return createParticipation(activityId, user);
     }
 
     /**
      * Función de interfaz que crea un listado de participaciones en la BD mediante un
-     * dto con la información correspondiente (id de la actividad y los usuarios participantes)
+     * dto con la información correspondiente (id de la actividad y los usuarios participantes).
+     * La actividad se valida una sola vez, los usuarios se resuelven con una única consulta y
+     * las participaciones existentes con otra. Los usuarios inexistentes o que ya participan
+     * no detienen el lote: se informan en el resultado y el resto se inserta por lotes.
      * @param dto DTO. Con la información.
-     * @return código de la actividad.
+     * @return resultado del registro de cada nombre de usuario, en el orden recibido.
      * */
     @Override
     @Transactional
-    public long createParticipations(Authentication auth, ParticipationWrapperDTO dto) {
+    public ParticipationBatchDTO createParticipations(User user, ParticipationWrapperDTO dto) {
         var activityId = dto.activityId();
-        var user = userService.getMyUser(auth);
-
         if(user.getRole() != Role.ROLE_ADMIN && !volunteeringService.isUserOrganizer(activityId, user.getId()))
             throw new BusinessValidationException("Esta operación no puede ser realizada por su persona " +
                     "por falta de rol o estado ORGANIZADOR PRINCIPAL.");
@@ -125,28 +201,92 @@ public class ParticipationServiceImpl implements ParticipationService{
         if(usernames.isEmpty())
             throw new BusinessValidationException("El lote de participaciones está vacio");
 
-        usernames.forEach(u ->{
-            var participant = userService.getUserByUsername(u);
-            createParticipation(activityId, participant);
+        final var activity = getActivityForRegistration(activityId);
+        if(activity.getStartDate().isBefore(LocalDateTime.now()))
+            throw new BusinessValidationException("La actividad "+activityId+" ya ha dado inicio, por lo que no " +
+                    "admite el registro de nuevas participaciones.");
+
+        final var users = userService.getUsersByUsernames(usernames.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        final Set<Long> registered = users.isEmpty() ? new HashSet<>() :
+                new HashSet<>(participationRepository.findUserIdsByActivityIdAndStatusNot(activityId,
+                        users.values().stream().map(User::getId).toList(),
+                        ParticipationState.CANCELADO));
+
+        final List<RegistrationOutcome> outcomes = new ArrayList<>(usernames.size());
+        final List<Participation> participation = new ArrayList<>();
+        usernames.forEach(username -> {
+            final var participant = username == null ? null : users.get(username);
+            if(participant == null){
+                outcomes.add(new RegistrationOutcome(username, RegistrationResult.UNKNOWN_USER, null));
+            }else if(!registered.add(participant.getId())){
+                outcomes.add(new RegistrationOutcome(username, RegistrationResult.DUPLICATE, null));
+            }else{
+                final var newParticipation = participationMapper.toEntity(participant, activity);
+                participation.add(newParticipation);
+                outcomes.add(new RegistrationOutcome(username, RegistrationResult.CREATED, newParticipation));
+            }
         });
-        return activityId;
+
+        if(!participation.isEmpty()){
+            participationRepository.saveAll(participation);
+            countCache.invalidate(CountCache.Scope.PARTICIPATION);
+        }
+
+        return new ParticipationBatchDTO(activityId,
+                participation.size(),
+                outcomes.stream()
+                        .map(outcome -> new ParticipationResultDTO(outcome.username(),
+                                outcome.result(),
+                                outcome.participation() == null ? null : outcome.participation().getId()))
+                        .toList());
     }
 
     /**
-     * Función auxiliar encargada de validar las participaciones antes de insertarlas.
+     * Función auxiliar encargada de validar e insertar una participación.
      * @param user usuario a insertar.
      * @param activityId Id de actividad a insertar.
      * @return DTO. Con información de la participación insertada.
      * */
-    @Transactional
     private ParticipationDTO createParticipation(long activityId, final User user){
+        final var activity = getActivityForRegistration(activityId);
+        validateNewParticipation(activity, user);
+
+        var participation = participationMapper.toEntity(user, activity);
+        var myParticipation = participationRepository.save(participation);
+        countCache.invalidate(CountCache.Scope.PARTICIPATION);
+
+        return participationMapper.toDto(myParticipation);
+    }
+
+    /**
+     * Función auxiliar encargada de recuperar una actividad que aún admite participaciones.
+     * @param activityId Id de la actividad.
+     * @return actividad no clausurada.
+     * @throws ResourceNotFoundException en caso de que la actividad no exista.
+     * @throws BusinessValidationException en caso de que la actividad esté clausurada.
+     * */
+    private Activity getActivityForRegistration(long activityId){
         final var activity = activityRepository.findById(activityId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("La actividad "+activityId+" no fue encontrada para " +
                                 "colocar su participación."));
         if(activity.isFinalized())
             throw new BusinessValidationException("La actividad "+activityId+" está actualmente clausurada.");
+        return activity;
+    }
 
+    /**
+     * Función auxiliar encargada de validar una participación antes de insertarla. Solo consulta
+     * la BD, por lo que en los lotes no obliga a Hibernate a vaciar los INSERT pendientes.
+     * @param activity actividad de la participación.
+     * @param user usuario a insertar.
+     * @throws BusinessValidationException en caso de que la actividad haya iniciado o el usuario
+     * ya cuente con una participación activa en ella.
+     * */
+    private void validateNewParticipation(Activity activity, final User user){
+        final var activityId = activity.getId();
         if(activity.getStartDate().isBefore(LocalDateTime.now()))
             throw new BusinessValidationException("La actividad "+activityId+" ya ha dado inicio, por lo que el " +
                     "registro para participación de usuario "+user.getUsername()+" no se puede lleva a cabo.");
@@ -155,27 +295,20 @@ public class ParticipationServiceImpl implements ParticipationService{
                 activityId,
                 ParticipationState.CANCELADO))
             throw new BusinessValidationException(user.getUsername()+" ya cuenta con una participación en la actividad "+activityId);
-
-        var participation = participationMapper.toEntity(user, activity);
-        var myParticipation = participationRepository.save(participation);
-
-        return participationMapper.toDto(myParticipation);
     }
 
     /**
      * Función de interfaz encargada de indicar que una participación ha dado inicio.
-     * @param auth credenciales
+     * @param user usuario autenticado que realiza la petición.
      * @param participationId identificador de la participación
      * @return datos de la participación
      *  se intenta actualizar una actividad que no corresponde al usuario.
      * */
     @Override
     @Transactional
-    public ParticipationDTO updateStartDate(Authentication auth, long participationId) {
+    public ParticipationDTO updateStartDate(User user, long participationId) {
         var participation = getParticipationById(participationId);
 
-        final var user = userService.getMyUser(auth);
-
         validateParticipation(participation, user);
 
         if(LocalDate.now().isBefore(participation.getActivity().getStartDate().toLocalDate()))
@@ -191,40 +324,54 @@ public class ParticipationServiceImpl implements ParticipationService{
 
     /**
      * Función de interfaz encargada de indicar que una participación se ha cancelado.
-     * @param auth credenciales
+     * @param user usuario autenticado que realiza la petición.
      * @param participationId identificador de la participación
      * @return datos de la participación
      * */
     @Override
     @Transactional
-    public ParticipationDTO cancelParticipation(final Authentication auth, long participationId) {
+    public ParticipationDTO cancelParticipation(final User user, long participationId) {
         var participation = getParticipationById(participationId);
 
-        final var user = userService.getMyUser(auth);
-
         validateParticipation(participation, user);
 
         participation.setEndDate(LocalDate.now());
         participation.setStatus(ParticipationState.CANCELADO);
         var myParticipation = participationRepository.save(participation);
+        countCache.invalidate(CountCache.Scope.PARTICIPATION);
         return participationMapper.toDto(myParticipation);
     }
 
     /**
      * Función de interfaz encargada de eliminar una participación.
-     * @param auth credenciales
+     * @param user usuario autenticado que realiza la petición.
      * @param participationId identificador de la participación
      * */
     @Override
     @Transactional
-    public void deleteParticipation(final Authentication auth, long participationId) {
+    public void deleteParticipation(final User user, long participationId) {
         var participation = getParticipationById(participationId);
-        final var user = userService.getMyUser(auth);
-
         if(user.getRole() != Role.ROLE_ADMIN)
             validateParticipation(participation, user);
 
         participationRepository.delete(participation);
+        countCache.invalidate(CountCache.Scope.PARTICIPATION);
+    }
+
+    /**
+     * Función auxiliar que valida que la actividad exista y que quien solicita sea su
+     * organizador o administrador del sistema.
+     * @param user usuario autenticado que realiza la petición.
+     * @param activityId identificador de la actividad.
+     * */
+    private void canSeeActivityParticipation(final User user, long activityId){
+        if(!activityRepository.existsById(activityId))
+            throw new ResourceNotFoundException("La actividad "+activityId+" no existe");
+
+        if(!volunteeringService.isUserOrganizer(activityId, user.getId()) &&
+                user.getRole() != Role.ROLE_ADMIN)
+            throw new BusinessValidationException("La actividad "+activityId+" y sus participaciones no " +
+                    "pueden ser consultadas por su persona");
     }
 
     /**
@@ -248,7 +395,7 @@ public class ParticipationServiceImpl implements ParticipationService{
      */
     private void validateParticipation(Participation participation, User user){
         var participationId = participation.getId();
-        if(!user.equals(participation.getUser()))
+        if(user.getId() != participation.getUser().getId())
             throw new BusinessValidationException("La participación "+participationId+" no corresponde a su usuario");
 
         if(participation.getActivity().isFinalized())
@@ -1,30 +1,42 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
+import com.UNED.APIDataMujer.dto.projection.AffiliatePaymentRow;
 import com.UNED.APIDataMujer.dto.request.PaymentRegisterDTO;
 import com.UNED.APIDataMujer.dto.response.AffiliatesPaymentReportDTO;
 import com.UNED.APIDataMujer.dto.response.PaymentDTO;
 import com.UNED.APIDataMujer.entity.Payment;
+import com.UNED.APIDataMujer.entity.PaymentSummary;
 import com.UNED.APIDataMujer.entity.User;
-import com.UNED.APIDataMujer.enums.Classification;
 import com.UNED.APIDataMujer.enums.Role;
 import com.UNED.APIDataMujer.exception.BusinessValidationException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.mapper.CsvUtil;
+import com.UNED.APIDataMujer.mapper.KeysetCursor;
 import com.UNED.APIDataMujer.mapper.PaginationUtil;
 import com.UNED.APIDataMujer.mapper.PaymentMapper;
 import com.UNED.APIDataMujer.repository.PaymentRepository;
+import com.UNED.APIDataMujer.repository.PaymentSummaryRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Clase encargada a los servicios relacionados con los pagos.
@@ -35,8 +47,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentServiceImpl implements PaymentService{
 
-    private final UserService userService;
+    private static final int REPORT_PAGE_SIZE = 25;
+
+    @Value("${application.reports.export.chunk-size:500}")
+    private int exportChunkSize;
+
+    private final PaymentSummaryService paymentSummaryService;
     private final PaymentRepository paymentRepository;
+    private final CountCache countCache;
+    private final PaymentSummaryRepository paymentSummaryRepository;
     private final UserRepository userRepository;
     private final PaymentMapper paymentMapper;
 
@@ -54,67 +73,143 @@ public class PaymentServiceImpl implements PaymentService{
     /**
      * Función encargada de obtener una serie de pagos asociados
      * al usuario que solicita.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param page pagina.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return listado de los pagos ordenados por estado y luego id.
      * */
     @Override
-    public SimplePage<PaymentDTO> getMyPayments(final Authentication auth,
-                                                int page) {
-        final var user = userService.getMyUser(auth);
-
+    @Transactional(readOnly = true)
+    public SimplePage<PaymentDTO> getMyPayments(final User user,
+                                                int page,
+                                                boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25,
                 Sort.by(Sort.Order.asc("isPaid"), Sort.Order.asc("id")));
         var payments = paymentRepository
-                .findByUser(user, pageable);
+                .findDtosByUserId(user.getId(), pageable);
+
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PAYMENT, "user|" + user.getId(),
+                        () -> paymentRepository.countByUserId(user.getId())) :
+                null;
+        return PaginationUtil.wrapInPage(payments, total);
+    }
 
-        return PaginationUtil.wrapInPage(payments, paymentMapper::toDto);
+    /**
+     * Variante por keyset (estado e id) de los pagos del usuario que solicita.
+     * @param user usuario autenticado que realiza la petición.
+     * @param cursor cursor del último pago entregado. Vacío para la primera página.
+     * @return página de pagos y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentDTO> getMyPayments(final User user,
+                                                String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var payments = paymentRepository.findDtosByUserIdAfter(user.getId(),
+                after == null ? null : after.booleanKey(),
+                after == null ? 0 : after.id(),
+                Limit.of(26));
+
+        return PaginationUtil.wrapInCursorPage(payments, 25, Function.identity(),
+                p -> KeysetCursor.of(p.isPaid(), p.id()));
     }
 
     /**
      * Obtener una serie de pagos dependiendo si están o no pagados.
      * @param isPaid estado con el cual filtrar.
      * @param page página.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return págína con los resultados en DTO.
      * */
     @Override
-    public SimplePage<PaymentDTO> getPaymentsByStatus(boolean isPaid, int page) {
+    @Transactional(readOnly = true)
+    public SimplePage<PaymentDTO> getPaymentsByStatus(boolean isPaid, int page, boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 24, Sort.by("id"));
         var payments = paymentRepository
-                .findByIsPaid(isPaid, pageable);
-        return PaginationUtil.wrapInPage(payments, paymentMapper::toDto);
+                .findDtosByIsPaid(isPaid, pageable);
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PAYMENT, "status|" + isPaid,
+                        () -> paymentRepository.countByIsPaid(isPaid)) :
+                null;
+        return PaginationUtil.wrapInPage(payments, total);
     }
 
     /**
-     * Función encargada de consultar la información de todos los usuarios que han
-     * pagado al menos una mensualidad.
-     * @param page número de página.
-     * @return una página con los resultados.
+     * Variante por keyset (id) de los pagos según su estado.
+     * @param isPaid estado con el cual filtrar.
+     * @param cursor cursor del último pago entregado. Vacío para la primera página.
+     * @return página de pagos y el cursor de la siguiente.
      * */
     @Override
-    public SimplePage<AffiliatesPaymentReportDTO> generateUserPaymentReport(int page) {
-
-        Pageable pageable = PageRequest.of(page, 25); // 25 por página
-        var users = paymentRepository
-                .findUsersWithPaidMonthlyPaymentsPaged(Classification.MENSUALIDAD, pageable);
-
-        return PaginationUtil.wrapInPage(users, user -> {
-            var lastPaymentOpt = paymentRepository
-                    .findTopByUserAndClassificationAndIsPaidTrueOrderByPaymentDateDesc(
-                            user, Classification.MENSUALIDAD);
-
-            LocalDateTime lastPaymentDate = lastPaymentOpt.map(Payment::getPaymentDate).orElse(null);
+    @Transactional(readOnly = true)
+    public CursorPage<PaymentDTO> getPaymentsByStatus(boolean isPaid, String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var payments = paymentRepository.findDtosByIsPaidAfter(isPaid,
+                after == null ? 0 : after.id(),
+                Limit.of(25));
+        return PaginationUtil.wrapInCursorPage(payments, 24, Function.identity(),
+                p -> KeysetCursor.of(p.id()));
+    }
 
-            BigDecimal totalPaid = paymentRepository
-                    .sumPaidMonthlyByUser(user, Classification.MENSUALIDAD);
+    /**
+     * Función encargada de consultar la información de todos los usuarios que han
+     * pagado al menos una mensualidad. Cada página se resuelve con una única consulta sobre
+     * el resumen de pagos, paginada por keyset (última mensualidad descendente e id de usuario).
+     * @param cursor cursor de la última fila entregada. NULL o vacío para la primera página.
+     * @return una página con los resultados y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<AffiliatesPaymentReportDTO> generateUserPaymentReport(String cursor) {
+        final var rows = fetchReportRows(
+                KeysetCursor.decodeOrNull(cursor),
+                REPORT_PAGE_SIZE + 1);
+
+        return PaginationUtil.wrapInCursorPage(rows, REPORT_PAGE_SIZE,
+                paymentMapper::toDto,
+                row -> KeysetCursor.of(row.lastPaymentDate(), row.userId()));
+    }
 
-            return paymentMapper.toDto(user, lastPaymentDate, totalPaid);
-        });
+    /**
+     * Función encargada de exportar el reporte completo de pagos de afiliados en formato CSV.
+     * El reporte se recorre por lotes con la misma consulta por keyset, por lo que la memoria
+     * usada no depende del número de usuarios.
+     * Los campos se escapan según RFC 4180 y se neutralizan los que empiezan como fórmula.
+     * @param outputStream flujo de salida de la respuesta.
+     * @throws IOException en caso de que no se pueda escribir en el flujo.
+     * */
+    @Override
+    public void exportUserPaymentReport(OutputStream outputStream) throws IOException {
+        final var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("username,lastPaymentDate,affiliateExpirationDate,totalPaid,isAffiliate");
+        writer.newLine();
+
+        KeysetCursor cursor = null;
+        List<AffiliatePaymentRow> rows;
+        do{
+            rows = fetchReportRows(cursor, exportChunkSize);
+            for(var row : rows){
+                var dto = paymentMapper.toDto(row);
+                writer.write(CsvUtil.row(
+                        dto.username(),
+                        dto.lastPaymentDate().toString(),
+                        dto.affiliateExpirationDate().toString(),
+                        dto.totalPaid().toPlainString(),
+                        String.valueOf(dto.isAffiliate())));
+                writer.newLine();
+            }
+            writer.flush();
+            if(!rows.isEmpty()){
+                var last = rows.get(rows.size() - 1);
+                cursor = KeysetCursor.of(last.lastPaymentDate(), last.userId());
+            }
+        }while(rows.size() == exportChunkSize);
     }
 
     /**
      * Función para crear un nuevo pago.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param dto información del pago.
      * @throws BusinessValidationException en caso de que una regla de negocio sea violada como:
      * fecha nula cuando se reporta que el pago se realizó o fecha enviada cuando se reporta
@@ -123,9 +218,7 @@ public class PaymentServiceImpl implements PaymentService{
      * */
     @Override
     @Transactional
-    public PaymentDTO createPayment(final Authentication auth, PaymentRegisterDTO dto) {
-        var user = userService.getMyUser(auth);
-
+    public PaymentDTO createPayment(final User user, PaymentRegisterDTO dto) {
         if(dto.isPaid() && dto.paymentDate() == null)
             throw new BusinessValidationException("Usted no está indicando que el pago está realizado " +
                     "pero no indica cuando se está realizando.");
@@ -135,15 +228,17 @@ public class PaymentServiceImpl implements PaymentService{
 
         var payment = paymentMapper.toEntity(user, dto);
         var myPayment = paymentRepository.save(payment);
+        countCache.invalidate(CountCache.Scope.PAYMENT);
 
-        updateAffiliateAndContributorStatus(user);
+        if(myPayment.isPaid())
+            applyStatus(user, paymentSummaryService.applyPaid(myPayment));
 
         return paymentMapper.toDto(myPayment);
     }
 
     /**
      * Función para actualizar a estado PAGADO a un pago realizado.
-     * @param auth credenciales.
+     * @param user usuario autenticado que realiza la petición.
      * @param id identificador del pago.
      * @param paymentDate nueva fecha de pago.
      * @throws BusinessValidationException en caso de que una regla de negocio sea violada como:
@@ -152,14 +247,12 @@ public class PaymentServiceImpl implements PaymentService{
      * */
     @Override
     @Transactional
-    public PaymentDTO updatePaidRecord(final Authentication auth,
+    public PaymentDTO updatePaidRecord(final User user,
                                        long id, LocalDateTime paymentDate) {
 
         var payment = getPaymentById(id);
-        final var user = userService.getMyUser(auth);
-
         if(user.getRole() != Role.ROLE_ADMIN &&
-                !user.equals(payment.getUser()))
+                user.getId() != payment.getUser().getId())
             throw new BusinessValidationException("Usted está intentando actualizar un pago " +
                     "que no le corresponde.");
 
@@ -174,7 +267,8 @@ public class PaymentServiceImpl implements PaymentService{
         payment.setPaid(true);
 
         var myPayment = paymentRepository.save(payment);
-        updateAffiliateAndContributorStatus(user);
+        countCache.invalidate(CountCache.Scope.PAYMENT);
+        applyStatus(myPayment.getUser(), paymentSummaryService.applyPaid(myPayment));
 
         return paymentMapper.toDto(myPayment);
     }
@@ -194,48 +288,33 @@ public class PaymentServiceImpl implements PaymentService{
         if(!payment.isPaid())
             throw new BusinessValidationException("El pago aún no se reporta como pagado.");
 
+        final var previousPaymentDate = payment.getPaymentDate();
         payment.setPaymentDate(null);
         payment.setPaid(false);
 
         var myPayment = paymentRepository.save(payment);
-        updateAffiliateAndContributorStatus(myPayment.getUser());
+        countCache.invalidate(CountCache.Scope.PAYMENT);
+        final var user = myPayment.getUser();
+        applyStatus(user, paymentSummaryService.revertPaid(user.getId(),
+                myPayment.getClassification(), myPayment.getTotalAmount(), previousPaymentDate));
 
         return paymentMapper.toDto(myPayment);
     }
 
     /**
-     * Función que actualiza los estados "Contribuidor" y "Afiliado" a true de
-     * un usuario.
+     * Función que actualiza los estados "Contribuidor" y "Afiliado" de un usuario
+     * a partir de su fila en el resumen de pagos.
      * @param user usuario a actualizar.
      * */
     @Override
     @Transactional
     public void updateAffiliateAndContributorStatus(User user){
-        var hasContributions = paymentRepository.existsByUserAndIsPaidTrue(user);
-        user.setContributor(hasContributions);
-
-        var lastMonthlyPayment = paymentRepository
-                .findTopByUserAndClassificationAndIsPaidTrueOrderByPaymentDateDesc(
-                        user, Classification.MENSUALIDAD
-                );
-
-        if (lastMonthlyPayment.isPresent()) {
-            var paymentDate = lastMonthlyPayment.get().getPaymentDate();
-            var expirationDate = paymentDate.plusMonths(1);
-
-            user.setAffiliate(
-                    expirationDate.isAfter(LocalDateTime.now())
-            );
-        } else {
-            user.setAffiliate(false);
-        }
-        userRepository.save(user);
+        applyStatus(user, paymentSummaryRepository.findById(user.getId()).orElse(null));
     }
 
-
-
     /**
-     * Función encargada de eliminar un payment de la base de datos.
+     * Función encargada de eliminar un payment de la base de datos. Si el pago estaba
+     * pagado se descuenta del resumen del usuario y se recalcula su estado.
      * @param id identificador del pago.
      * */
     @Override
@@ -243,6 +322,39 @@ public class PaymentServiceImpl implements PaymentService{
     public void deletePayment(long id) {
         var payment = getPaymentById(id);
         paymentRepository.delete(payment);
+        countCache.invalidate(CountCache.Scope.PAYMENT);
+
+        if(payment.isPaid()){
+            final var user = payment.getUser();
+            applyStatus(user, paymentSummaryService.revertPaid(user.getId(),
+                    payment.getClassification(), payment.getTotalAmount(), payment.getPaymentDate()));
+        }
+    }
+
+    /**
+     * Función auxiliar que fija los estados "Contribuidor" y "Afiliado" de un usuario
+     * según su resumen de pagos.
+     * @param user usuario a actualizar.
+     * @param summary resumen de pagos del usuario. NULL si nunca ha pagado.
+     * */
+    private void applyStatus(User user, PaymentSummary summary){
+        user.setContributor(summary != null && summary.getPaidCount() > 0);
+        user.setAffiliate(summary != null && summary.getAffiliateExpiration() != null &&
+                summary.getAffiliateExpiration().isAfter(LocalDateTime.now()));
+        userRepository.save(user);
+    }
+
+    /**
+     * Función auxiliar que consulta un lote del reporte de pagos de afiliados a partir
+     * de un cursor.
+     * @param cursor cursor de la última fila entregada. NULL para iniciar desde el principio.
+     * @param limit cantidad máxima de filas.
+     * @return filas agregadas por usuario.
+     * */
+    private List<AffiliatePaymentRow> fetchReportRows(KeysetCursor cursor, int limit){
+        if(cursor == null)
+            return paymentSummaryRepository.findReportFirst(Limit.of(limit));
+        return paymentSummaryRepository.findReportAfter(cursor.dateTimeKey(), cursor.id(), Limit.of(limit));
     }
 
     /**
@@ -0,0 +1,119 @@
+package com.UNED.APIDataMujer.service.resource;
+
+import com.UNED.APIDataMujer.entity.Payment;
+import com.UNED.APIDataMujer.entity.PaymentSummary;
+import com.UNED.APIDataMujer.enums.Classification;
+import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.repository.PaymentRepository;
+import com.UNED.APIDataMujer.repository.PaymentSummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Servicio encargado de mantener el resumen de pagos por usuario (TBDMDETResumenPagos).
+ * Cada cambio sobre un pago pagado se aplica como un incremento o decremento sobre la fila
+ * del usuario, bloqueada durante la transacción del propio cambio, de modo que el estado
+ * de afiliación, el de contribuidor y el reporte de afiliados lean una sola fila en lugar
+ * de recorrer TBDMDETPagos.
+ * @author AHKolodin
+ * */
+@Service
+@RequiredArgsConstructor
+public class PaymentSummaryService {
+
+    private final PaymentSummaryRepository paymentSummaryRepository;
+    private final PaymentRepository paymentRepository;
+
+    /**
+     * Función que suma al resumen de su usuario un pago que acaba de quedar pagado.
+     * @param payment pago con estado pagado y fecha de pago.
+     * @return resumen actualizado.
+     * */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentSummary applyPaid(Payment payment){
+        final var summary = lockSummary(payment.getUser().getId());
+
+        summary.setPaidCount(summary.getPaidCount() + 1);
+        summary.setPaidTotal(summary.getPaidTotal().add(payment.getTotalAmount()));
+
+        if(payment.getClassification() == Classification.MENSUALIDAD){
+            summary.setMonthlyTotal(summary.getMonthlyTotal().add(payment.getTotalAmount()));
+            final var last = summary.getLastMonthlyPayment();
+            if(last == null || payment.getPaymentDate().isAfter(last))
+                setLastMonthlyPayment(summary, payment.getPaymentDate());
+        }
+        return summary;
+    }
+
+    /**
+     * Función que descuenta del resumen de su usuario un pago que dejó de estar pagado o
+     * fue eliminado. El cambio del pago debe haberse aplicado antes de llamar a esta función;
+     * si era la última mensualidad, la nueva se recupera del índice de pagos del usuario.
+     * @param userId identificador del usuario propietario del pago.
+     * @param classification clasificación del pago.
+     * @param amount monto del pago.
+     * @param paymentDate fecha en la que el pago se había realizado.
+     * @return resumen actualizado.
+     * */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public PaymentSummary revertPaid(long userId, Classification classification,
+                                     BigDecimal amount, LocalDateTime paymentDate){
+        final var summary = lockSummary(userId);
+
+        summary.setPaidCount(Math.max(0, summary.getPaidCount() - 1));
+        summary.setPaidTotal(summary.getPaidTotal().subtract(amount));
+
+        if(classification == Classification.MENSUALIDAD){
+            summary.setMonthlyTotal(summary.getMonthlyTotal().subtract(amount));
+            if(paymentDate != null && paymentDate.equals(summary.getLastMonthlyPayment()))
+                setLastMonthlyPayment(summary, paymentRepository
+                        .findLastPaidDate(userId, Classification.MENSUALIDAD)
+                        .orElse(null));
+        }
+        return summary;
+    }
+
+    /**
+     * Función que crea el resumen vacío de un usuario recién registrado. Se invoca en la misma
+     * transacción del registro, de modo que todo usuario tiene su fila antes de su primer pago
+     * y los cambios posteriores solo necesitan bloquearla.
+     * @param userId identificador del usuario recién persistido.
+     * */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void createFor(long userId){
+        paymentSummaryRepository.insertIfAbsent(userId);
+    }
+
+    /**
+     * Función auxiliar que recupera la fila del resumen de un usuario bloqueada para
+     * escritura. La fila se crea al registrar al usuario (o por la migración V9 para los
+     * usuarios previos), así que aquí nunca se inserta: un INSERT seguido del bloqueo, o un
+     * bloqueo sobre una fila inexistente, toma bloqueos de hueco en InnoDB que dos pagos
+     * concurrentes del mismo usuario terminan cruzando en un interbloqueo.
+     * @param userId identificador del usuario.
+     * @return resumen bloqueado hasta el fin de la transacción.
+     * @throws ResourceNotFoundException si el usuario no tiene resumen de pagos.
+     * */
+    private PaymentSummary lockSummary(long userId){
+        return paymentSummaryRepository.findForUpdate(userId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("No ha sido posible recuperar el resumen de pagos " +
+                                "del usuario."));
+    }
+
+    /**
+     * Función auxiliar que actualiza la última mensualidad y, con ella, el vencimiento
+     * de la afiliación.
+     * @param summary resumen a actualizar.
+     * @param lastMonthlyPayment fecha de la última mensualidad. NULL si ya no hay ninguna.
+     * */
+    private void setLastMonthlyPayment(PaymentSummary summary, LocalDateTime lastMonthlyPayment){
+        summary.setLastMonthlyPayment(lastMonthlyPayment);
+        summary.setAffiliateExpiration(lastMonthlyPayment == null ? null : lastMonthlyPayment.plusMonths(1));
+    }
+}
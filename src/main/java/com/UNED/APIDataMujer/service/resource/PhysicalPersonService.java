@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.PhysicalPersonUpdateDTO;
 import com.UNED.APIDataMujer.dto.response.PhysicalPersonDTO;
@@ -7,8 +8,10 @@ import com.UNED.APIDataMujer.entity.User;
 
 public interface PhysicalPersonService {
     PhysicalPersonDTO getPersonByNationalId(String nationalId);
-    SimplePage<PhysicalPersonDTO> getPersonByName(String name, int page);
-    SimplePage<PhysicalPersonDTO> getPersonBySurname(String surname, int page);
+    SimplePage<PhysicalPersonDTO> getPersonByName(String name, int page, boolean includeTotal);
+    CursorPage<PhysicalPersonDTO> getPersonByName(String name, String cursor);
+    SimplePage<PhysicalPersonDTO> getPersonBySurname(String surname, int page, boolean includeTotal);
+    CursorPage<PhysicalPersonDTO> getPersonBySurname(String surname, String cursor);
     PhysicalPersonDTO updateMyPhysicalProfile(User user,
                                               PhysicalPersonUpdateDTO dto);
     PhysicalPersonDTO toDto(User user);
@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.PhysicalPersonUpdateDTO;
 import com.UNED.APIDataMujer.dto.response.PhysicalPersonDTO;
@@ -7,22 +8,31 @@ import com.UNED.APIDataMujer.entity.Person;
 import com.UNED.APIDataMujer.entity.PhysicalPerson;
 import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.mapper.KeysetCursor;
 import com.UNED.APIDataMujer.mapper.PaginationUtil;
 import com.UNED.APIDataMujer.mapper.PersonMapper;
 import com.UNED.APIDataMujer.repository.PhysicalPersonRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class PhysicalPersonServiceImpl implements PhysicalPersonService{
 
     private final PhysicalPersonRepository physicalPersonRepository;
+    private final CountCache countCache;
     private final UserRepository userRepository;
     private final PersonMapper personMapper;
 
@@ -49,15 +59,41 @@ public class PhysicalPersonServiceImpl implements PhysicalPersonService{
      * nombre.
      * @param name nombre de las personas.
      * @param page indicador de paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return paginación de las personas físicas según el nombre indicado.
      * */
     @Override
-    public SimplePage<PhysicalPersonDTO> getPersonByName(String name, int page) {
+    public SimplePage<PhysicalPersonDTO> getPersonByName(String name, int page, boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25, Sort.by("id"));
         var nameSearch = physicalPersonRepository.findByNameContainingIgnoreCase(name, pageable);
-        return PaginationUtil.wrapInPage(nameSearch,
+        final var users = getUsersByPersons(nameSearch.getContent());
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PERSON, "name|" + name.toLowerCase(),
+                        () -> physicalPersonRepository.countByNameContainingIgnoreCase(name)) :
+                null;
+        return PaginationUtil.wrapInPage(nameSearch, total,
                 pp -> personMapper.toDto(
-                        getUserByPerson(pp.getPerson()), pp));
+                        getUser(users, pp.getId()), pp));
+    }
+
+    /**
+     * Función de interfaz. Variante por keyset (id) de la búsqueda de personas nacionales
+     * según su nombre.
+     * @param name nombre de las personas.
+     * @param cursor cursor de la última persona entregada. Vacío para la primera página.
+     * @return página de personas físicas y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PhysicalPersonDTO> getPersonByName(String name, String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var nameSearch = physicalPersonRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                name, after == null ? 0 : after.id(), Limit.of(26));
+        final var users = getUsersByPersons(nameSearch);
+        return PaginationUtil.wrapInCursorPage(nameSearch, 25,
+                pp -> personMapper.toDto(
+                        getUser(users, pp.getId()), pp),
+                pp -> KeysetCursor.of(pp.getId()));
     }
 
     /**
@@ -65,16 +101,42 @@ public class PhysicalPersonServiceImpl implements PhysicalPersonService{
      * apellido.
      * @param surname apellido de las personas.
      * @param page indicador de paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return paginación de las personas físicas según el apellido indicado.
      * */
     @Override
-    public SimplePage<PhysicalPersonDTO> getPersonBySurname(String surname, int page) {
+    public SimplePage<PhysicalPersonDTO> getPersonBySurname(String surname, int page, boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25, Sort.by("id"));
         var surnameSearch = physicalPersonRepository
                 .findByAnySurnameContainingIgnoreCase(surname, pageable);
-        return PaginationUtil.wrapInPage(surnameSearch,
+        final var users = getUsersByPersons(surnameSearch.getContent());
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.PERSON, "surname|" + surname.toLowerCase(),
+                        () -> physicalPersonRepository.countByAnySurnameContainingIgnoreCase(surname)) :
+                null;
+        return PaginationUtil.wrapInPage(surnameSearch, total,
+                pp -> personMapper.toDto(
+                        getUser(users, pp.getId()), pp));
+    }
+
+    /**
+     * Función de interfaz. Variante por keyset (id) de la búsqueda de personas nacionales
+     * según su apellido.
+     * @param surname apellido de las personas.
+     * @param cursor cursor de la última persona entregada. Vacío para la primera página.
+     * @return página de personas físicas y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PhysicalPersonDTO> getPersonBySurname(String surname, String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var surnameSearch = physicalPersonRepository.findByAnySurnameContainingIgnoreCaseAfter(
+                surname, after == null ? 0 : after.id(), Limit.of(26));
+        final var users = getUsersByPersons(surnameSearch);
+        return PaginationUtil.wrapInCursorPage(surnameSearch, 25,
                 pp -> personMapper.toDto(
-                        getUserByPerson(pp.getPerson()), pp));
+                        getUser(users, pp.getId()), pp),
+                pp -> KeysetCursor.of(pp.getId()));
     }
 
     /**
@@ -95,6 +157,7 @@ public class PhysicalPersonServiceImpl implements PhysicalPersonService{
         physicalPerson.setProfession(dto.profession());
         physicalPerson.setBirthDate(dto.birthDate());
         var updatedPhysicalPerson = physicalPersonRepository.save(physicalPerson);
+        countCache.invalidate(CountCache.Scope.PERSON);
 
         return personMapper.toDto(user, updatedPhysicalPerson);
     }
@@ -140,4 +203,35 @@ public class PhysicalPersonServiceImpl implements PhysicalPersonService{
                                 "de su persona.")
                 );
     }
+
+    /**
+     * Función auxiliar encargada de recuperar en una única consulta los usuarios de todas
+     * las personas de una página, indexados por el id de su persona abstracta.
+     * @param persons personas de la página recuperadas de la bd.
+     * @return mapa id de persona - usuario.
+     * */
+    private Map<Long, User> getUsersByPersons(List<PhysicalPerson> persons){
+        final var personIds = persons.stream()
+                .map(PhysicalPerson::getId)
+                .toList();
+        if(personIds.isEmpty()) return Map.of();
+
+        return userRepository.findByPersonIdIn(personIds).stream()
+                .collect(Collectors.toMap(user -> user.getPerson().getId(), Function.identity()));
+    }
+
+    /**
+     * Función auxiliar encargada de obtener del mapa precargado el usuario de una persona.
+     * @param users usuarios indexados por el id de su persona abstracta.
+     * @param personId id de la persona abstracta.
+     * @return User de la persona asociada.
+     * @throws ResourceNotFoundException en caso de que no se encuentre al usuario asociado.
+     * */
+    private User getUser(Map<Long, User> users, long personId){
+        final var user = users.get(personId);
+        if(user == null)
+            throw new ResourceNotFoundException("No es posible recuperar información " +
+                    "de su persona.");
+        return user;
+    }
 }
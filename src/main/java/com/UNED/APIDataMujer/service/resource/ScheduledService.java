@@ -2,12 +2,14 @@ package com.UNED.APIDataMujer.service.resource;
 
 import com.UNED.APIDataMujer.entity.Activity;
 import com.UNED.APIDataMujer.entity.Participation;
-import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.ParticipationState;
 import com.UNED.APIDataMujer.repository.ActivityRepository;
 import com.UNED.APIDataMujer.repository.ParticipationRepository;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,12 +17,14 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Este bean de servicio tiene el único proposition de ejecutar tareas concretas
  * automáticamente.
  * @author glunah2001
  * */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ScheduledService {
@@ -29,7 +33,11 @@ public class ScheduledService {
     private final ParticipationRepository participationRepository;
     private final UserRepository userRepository;
 
-    private final PaymentService paymentService;
+    private final TokenService tokenService;
+    private final CountCache countCache;
+
+    @Value("${application.tokens.purge.chunk-size:1000}")
+    private int purgeChunkSize;
 
     /**
      * TODOS LOS DÍAS A LAS 23:50 (11:50 PM) revisará las actividades.
@@ -62,18 +70,33 @@ public class ScheduledService {
             participationRepository.saveAll(participation);
         });
         activityRepository.saveAll(activities);
+        countCache.invalidate(CountCache.Scope.ACTIVITY,
+                CountCache.Scope.VOLUNTEERING,
+                CountCache.Scope.PARTICIPATION);
     }
 
     /**
      * TODOS LOS DÍAS A LAS 00:10 (12:10 AM) revisará a todos los usuarios afiliados.
-     * Comprobará si su afiliación no ha caducados para actualizarla.
+     * Retira la afiliación a quienes no tengan en su resumen de pagos un vencimiento
+     * posterior al momento de la revisión, con una única actualización masiva.
      * */
     @Scheduled(cron = "0 10 0 * * ?")
     @Transactional
     public void scheduledUserUpdateAffiliateStatus(){
-        List<User> users = userRepository.findByIsAffiliateTrue();
-        users.forEach(paymentService::updateAffiliateAndContributorStatus);
-        userRepository.saveAll(users);
+        final int expired = userRepository.expireAffiliates(LocalDateTime.now());
+        log.info("Revisión de afiliaciones: {} afiliaciones vencidas.", expired);
     }
 
+    /**
+     * CADA HORA (por defecto) eliminará los tokens expirados o revocados de TBDMDETTokens.
+     * El borrado se hace por lotes acotados, cada uno en una transacción corta, y al
+     * finalizar se registra la cantidad de filas eliminadas y el tiempo empleado.
+     * */
+    @Scheduled(cron = "${application.tokens.purge.cron:0 0 * * * ?}")
+    public void scheduledTokenPurge(){
+        final long start = System.nanoTime();
+        final long deleted = tokenService.purgeExpiredTokens(purgeChunkSize);
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Purga de tokens: {} filas eliminadas en {} ms.", deleted, elapsed);
+    }
 }
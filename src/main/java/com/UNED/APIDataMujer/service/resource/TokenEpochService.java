@@ -0,0 +1,142 @@
+package com.UNED.APIDataMujer.service.resource;
+
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.jwt.JwtClaims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Servicio del modo de revocación sin estado ("epoch"). Cada usuario posee una época
+ * de tokens que viaja como claim dentro del JWT; revocar todas sus sesiones consiste
+ * en incrementarla. El filtro compara la época del token contra un mapa en memoria,
+ * sin consultar TBDMDETTokens en cada petición.
+ * Las épocas se recargan de la BD cada cierto tiempo para que varios nodos de la API
+ * converjan tras una revocación hecha en otro nodo. Un token con una época mayor a la
+ * almacenada fue emitido después de la última recarga (posiblemente en otro nodo), por lo
+ * que en ese caso la época se recarga de inmediato en lugar de rechazarlo. El mapa en
+ * memoria es acotado y desaloja la entrada usada menos recientemente (LRU).
+ * @author glunah2001
+ * */
+@Service
+@RequiredArgsConstructor
+public class TokenEpochService {
+
+    private record CachedEpoch(long epoch, long loadedAt) { }
+
+    @Value("${application.spring.security.revocation-mode:table}")
+    private String revocationMode;
+    @Value("${application.spring.security.epoch.refresh-interval:30000}")
+    private long refreshInterval;
+    @Value("${application.spring.security.epoch.max-size:50000}")
+    private int maxSize;
+
+    private final UserRepository userRepository;
+
+    private final Object lock = new Object();
+    private Map<Long, CachedEpoch> epochs;
+
+    /**
+     * Función de inicialización. Crea el mapa LRU con el tamaño configurado.
+     * */
+    @PostConstruct
+    void init(){
+        epochs = new LinkedHashMap<>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedEpoch> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Función que indica si el modo de revocación por época está habilitado.
+     * @return booleano de confirmación o negación.
+     * */
+    public boolean isEnabled(){
+        return "epoch".equalsIgnoreCase(revocationMode);
+    }
+
+    /**
+     * Función encargada de verificar que la época de un token coincida con la época
+     * vigente de su usuario. Solo se rechazan los tokens con una época anterior a la vigente;
+     * si la época del token es mayor a la almacenada, esta se recarga de la BD antes de decidir.
+     * @param claims claims verificados del JWT.
+     * @return booleano que indica si el token sigue siendo válido.
+     * */
+    public boolean isEpochValid(JwtClaims claims){
+        if(claims.userId() == null || claims.epoch() == null) return false;
+        final long tokenEpoch = claims.epoch();
+        final long epoch = currentEpoch(claims.userId(), false);
+        if(tokenEpoch <= epoch) return tokenEpoch == epoch;
+        return tokenEpoch == currentEpoch(claims.userId(), true);
+    }
+
+    /**
+     * Función que revoca todas las sesiones de un usuario incrementando su época.
+     * No realiza ninguna acción si el modo "epoch" no está habilitado.
+     * @param user usuario cuyas sesiones serán revocadas.
+     * */
+    @Transactional
+    public void revokeSessions(User user){
+        if(!isEnabled()) return;
+        user.setTokenEpoch(bumpEpoch(user.getId()));
+    }
+
+    /**
+     * Función que incrementa la época de tokens de un usuario en la BD y en memoria.
+     * @param userId identificador del usuario.
+     * @return la nueva época del usuario.
+     * */
+    @Transactional
+    public long bumpEpoch(long userId){
+        userRepository.incrementTokenEpoch(userId);
+        long epoch = userRepository.findTokenEpochById(userId).orElse(-1L);
+        store(userId, epoch, System.currentTimeMillis());
+        return epoch;
+    }
+
+    /**
+     * Función auxiliar que recupera la época vigente de un usuario desde memoria o, en caso
+     * de no estar, estar desactualizada o solicitarse explícitamente, desde la BD.
+     * @param userId identificador del usuario.
+     * @param reload indica si se debe consultar la BD aunque la época en memoria siga vigente.
+     * @return época vigente. -1 si el usuario no existe.
+     * */
+    private long currentEpoch(long userId, boolean reload){
+        long now = System.currentTimeMillis();
+        if(!reload){
+            final CachedEpoch cached;
+            synchronized (lock){
+                cached = epochs.get(userId);
+            }
+            if(cached != null && now - cached.loadedAt() < refreshInterval)
+                return cached.epoch();
+        }
+
+        long epoch = userRepository.findTokenEpochById(userId).orElse(-1L);
+        store(userId, epoch, now);
+        return epoch;
+    }
+
+    /**
+     * Función auxiliar que almacena la época de un usuario sin reemplazar una época mayor
+     * almacenada por una lectura concurrente más reciente.
+     * @param userId identificador del usuario.
+     * @param epoch época leída de la BD.
+     * @param loadedAt momento de la lectura.
+     * */
+    private void store(long userId, long epoch, long loadedAt){
+        synchronized (lock){
+            final var cached = epochs.get(userId);
+            if(cached != null && cached.epoch() > epoch) return;
+            epochs.put(userId, new CachedEpoch(epoch, loadedAt));
+        }
+    }
+}
@@ -5,13 +5,18 @@ import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.enums.TokenType;
 import com.UNED.APIDataMujer.mapper.TokenMapper;
 import com.UNED.APIDataMujer.repository.TokenRepository;
+import com.UNED.APIDataMujer.security.TokenDigest;
+import com.UNED.APIDataMujer.service.cache.IssuanceThrottle;
+import com.UNED.APIDataMujer.service.cache.TokenStatusCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -19,6 +24,8 @@ import java.util.UUID;
 public class TokenService {
     private final TokenRepository tokenRepository;
     private final TokenMapper tokenMapper;
+    private final TokenStatusCache tokenStatusCache;
+    private final IssuanceThrottle issuanceThrottle;
 
     /**
      * Se encarga de revocar el token indicado.
@@ -29,26 +36,46 @@ public class TokenService {
     public void revokeToken(Token token) {
         token.setRevoked(true);
         token.setExpired(true);
+        token.setExpiresAt(LocalDateTime.now());
         tokenRepository.save(token);
+        tokenStatusCache.invalidate(token.getTokenHash());
     }
 
     /**
-     * Revoca todos los tokens válidos de un usuario
+     * Revoca todos los tokens válidos de un usuario mediante una única sentencia UPDATE,
+     * sin cargar las entidades en el contexto de persistencia.
      * @param user usuario del que se revocarán todos los tokens
      */
     @Transactional
     public void revokeAllActiveTokens(User user) {
-        List<Token> tokens = tokenRepository
-                .findAllValidIsFalseOrRevokedIsFalseByUserId(user.getId());
-
-        if (tokens.isEmpty()) return;
+        tokenStatusCache.invalidateUser(user.getId());
+        tokenRepository.revokeAllActiveByUserId(user.getId(), LocalDateTime.now());
+    }
 
-        tokens.forEach(token -> {
-            token.setRevoked(true);
-            token.setExpired(true);
-        });
+    /**
+     * Revoca un token a partir de su digest mediante una única sentencia UPDATE.
+     * @param tokenHash digest del token a revocar
+     * @return true si el token existía en la base de datos
+     */
+    @Transactional
+    public boolean revokeTokenByHash(String tokenHash) {
+        final int updated = tokenRepository.revokeByTokenHash(tokenHash, LocalDateTime.now());
+        tokenStatusCache.invalidate(tokenHash);
+        return updated > 0;
+    }
 
-        tokenRepository.saveAll(tokens);
+    /**
+     * Indica si se puede emitir y enviar por correo un nuevo token del tipo indicado. La
+     * emisión se suprime si el usuario superó el máximo de emisiones de la ventana o si aún
+     * tiene un token vigente emitido hace muy poco; en ese caso debe usar el ya enviado.
+     * @param user usuario al que se le emitirá el token
+     * @param type tipo de token (ACTIVATION, PASSWORD_RESET)
+     * @return true si se puede emitir el token
+     */
+    public boolean tryIssue(User user, TokenType type) {
+        return issuanceThrottle.tryAcquire(type, user.getId(), () ->
+                tokenRepository.existsByUserIdAndTokenTypeAndRevokedFalseAndExpiresAtAfter(
+                        user.getId(), type, LocalDateTime.now()));
     }
 
     /**
@@ -66,20 +93,62 @@ public class TokenService {
      * @param tokenValue valor del token (JWT o UUID+expiración)
      * @param user usuario al que pertenece el token
      * @param type tipo de token (BEARER, ACTIVATION, PASSWORD_RESET)
+     * @param expirationMillis tiempo de vida del token en milisegundos
      */
-    public void saveToken(String tokenValue, User user, TokenType type) {
-        Token token = tokenMapper.toEntity(tokenValue, user, type);
+    public void saveToken(String tokenValue, User user, TokenType type, long expirationMillis) {
+        final var expiresAt = LocalDateTime.now().plus(Duration.ofMillis(expirationMillis));
+        Token token = tokenMapper.toEntity(tokenValue, user, type, expiresAt);
         tokenRepository.save(token);
     }
 
     /**
-     * Comprueba si un token está expirado según su valor (UUID_expiration)
+     * Busca un token persistido a partir de su valor original. El usuario propietario se
+     * recupera en la misma consulta.
+     * @param tokenValue valor del token (JWT o UUID+expiración)
+     * @return token encontrado mediante su digest
+     */
+    public Optional<Token> findByValue(String tokenValue) {
+        return tokenRepository.findWithUserByTokenHash(TokenDigest.of(tokenValue));
+    }
+
+    /**
+     * Revoca todos los tokens activos del usuario y persiste el nuevo token en una única
+     * transacción: un UPDATE masivo y un INSERT, sin importar el historial del usuario.
+     * @param tokenValue valor del nuevo token
+     * @param user usuario al que pertenece el token
+     * @param type tipo de token
+     * @param expirationMillis tiempo de vida del token en milisegundos
+     */
+    @Transactional
+    public void replaceActiveTokens(String tokenValue, User user, TokenType type, long expirationMillis) {
+        revokeAllActiveTokens(user);
+        saveToken(tokenValue, user, type, expirationMillis);
+    }
+
+    /**
+     * Comprueba si un token está expirado según su fecha de expiración
      * @param token token a verificar
      * @return true si está expirado
      */
     public boolean isTokenExpired(Token token) {
-        String[] parts = token.getToken().split("_");
-        long expiration = Long.parseLong(parts[1]);
-        return Instant.now().toEpochMilli() > expiration;
+        return token.getExpiresAt().isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Elimina por lotes los tokens cuya fecha de expiración ya pasó. Los tokens revocados
+     * también son eliminados ya que al revocarse su expiración se fija en el momento actual.
+     * Cada lote se ejecuta en su propia transacción para no mantener bloqueos prolongados.
+     * @param chunkSize cantidad máxima de filas a eliminar por lote
+     * @return cantidad total de filas eliminadas
+     */
+    public long purgeExpiredTokens(int chunkSize) {
+        final var cutoff = LocalDateTime.now();
+        long total = 0;
+        int deleted;
+        do {
+            deleted = tokenRepository.deleteExpiredChunk(cutoff, chunkSize);
+            total += deleted;
+        } while (deleted == chunkSize);
+        return total;
     }
 }
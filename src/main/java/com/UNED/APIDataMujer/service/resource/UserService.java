@@ -3,15 +3,17 @@ package com.UNED.APIDataMujer.service.resource;
 import com.UNED.APIDataMujer.dto.request.CommonUpdateDTO;
 import com.UNED.APIDataMujer.dto.response.ProfileDTO;
 import com.UNED.APIDataMujer.entity.User;
-import org.springframework.security.core.Authentication;
+
+import java.util.Collection;
+import java.util.Map;
 
 
 public interface UserService {
-    User getMyUser(Authentication authentication);
-    User updateUserData(Authentication auth, CommonUpdateDTO dto);
+    User updateUserData(User user, CommonUpdateDTO dto);
     User getUserByUsername(String username);
-    ProfileDTO getMyProfile(Authentication authentication);
+    Map<String, User> getUsersByUsernames(Collection<String> usernames);
+    ProfileDTO getMyProfile(User user);
     ProfileDTO getPersonByUsername(String username);
-    String setRole(Authentication auth, String username, int role);
+    String setRole(User currentUser, String username, int role);
     String setAffiliate(String username);
 }
@@ -7,11 +7,15 @@ import com.UNED.APIDataMujer.enums.Role;
 import com.UNED.APIDataMujer.exception.BusinessValidationException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
 import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.security.principal.CurrentUserResolver;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
  * Clase encargada de la consulta y modificación de información de los usuarios registrados.
  * @author  glunah2001, AHKolodin
@@ -24,17 +28,17 @@ public class UserServiceImpl implements UserService{
     private final PhysicalPersonService physicalPersonService;
     private final LegalPersonService legalPersonService;
     private final TokenService tokenService;
+    private final TokenEpochService tokenEpochService;
     private final UserRepository userRepository;
+    private final CurrentUserResolver currentUserResolver;
 
     /**
      * Función de interfaz que obtiene la información del perfil propio del usuario.
-     * @param authentication credenciales de autentificación del usuario con de la que
-     *                       se extrae el username.
+     * @param user usuario autenticado que realiza la petición.
      * @return el dto. Con la información no comprometedora completa de la persona física o legal
      * */
     @Override
-    public ProfileDTO getMyProfile(final Authentication authentication) {
-        var user = getMyUser(authentication);
+    public ProfileDTO getMyProfile(final User user) {
         return mapUserToProfileDTO(user);
     }
 
@@ -48,7 +52,7 @@ public class UserServiceImpl implements UserService{
      * Función para cambiar el rol de una persona diferente al administrador que ejecuta la
      * actualización. Al ejecutar esta función todos los tokens de la persona son revocados e
      * invalidados.
-     * @param auth credenciales.
+     * @param currentUser administrador autenticado que realiza la petición.
      * @param username nombre del usuario al cual aplicar el cambio.
      * @param role rol a asignar.
      * @return mensaje de confirmación.
@@ -57,12 +61,11 @@ public class UserServiceImpl implements UserService{
      * */
     @Override
     @Transactional
-    public String setRole(final Authentication auth,
+    public String setRole(final User currentUser,
                           String username, int role) {
         var user = getUserByUsername(username);
-        final var myUsar = getMyUser(auth);
 
-        if(user.equals(myUsar))
+        if(user.getId() == currentUser.getId())
             throw new BusinessValidationException("Usted no puede modificar su propio " +
                     "rol.");
 
@@ -76,6 +79,7 @@ public class UserServiceImpl implements UserService{
 
         userRepository.save(user);
         tokenService.revokeAllActiveTokens(user);
+        tokenEpochService.revokeSessions(user);
 
         return "Rol del usuario "+username+": " +
                 (role == 1 ? "MENTOR" :
@@ -101,16 +105,6 @@ public class UserServiceImpl implements UserService{
                 (affiliate ? "afiliado": "sin afiliar");
     }
 
-    /**
-     * Función de interfaz que obtiene la entidad User del propio usuario.
-     * @param authentication credenciales de autentificación del usuario.
-     * @return entidad User de la BD.
-     * */
-    @Override
-    public User getMyUser(final Authentication authentication) {
-        return getUserByUsername(authentication.getName());
-    }
-
     /**
      * Función auxiliar que extrae el Usuario de la BD mediante su ID
      * @param username que identifica al usuario.
@@ -118,6 +112,9 @@ public class UserServiceImpl implements UserService{
      * */
     @Override
     public User getUserByUsername(String username){
+        final var resolved = currentUserResolver.findResolved(username);
+        if(resolved != null) return resolved;
+
         return userRepository.findByUsername(username)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("No se ha encontrado ningún usuario registrado con el " +
@@ -125,16 +122,31 @@ public class UserServiceImpl implements UserService{
                 );
     }
 
+    /**
+     * Función que recupera en una única consulta los usuarios de un lote de nombres de usuario.
+     * Los nombres que no estén registrados simplemente no figuran en el resultado.
+     * @param usernames nombres de usuario a recuperar.
+     * @return usuarios indexados por su nombre de usuario, sin distinguir mayúsculas.
+     * */
+    @Override
+    public Map<String, User> getUsersByUsernames(Collection<String> usernames){
+        final Map<String, User> users = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if(usernames.isEmpty()) return users;
+
+        userRepository.findByUsernameIn(usernames)
+                .forEach(user -> users.put(user.getUsername(), user));
+        return users;
+    }
+
     /**
      * Función auxiliar que actualiza los datos comunes del usuario (usuario y persona abstracta)
-     * @param authentication credenciales del usuario.
+     * @param myUser usuario autenticado que realiza la petición.
      * @param dto Dto. Que contiene todos los datos comunes del usuario.
      * @return User con sus datos actualizados
      * */
     @Override
     @Transactional
-    public User updateUserData(Authentication authentication, CommonUpdateDTO dto){
-        final var myUser = getMyUser(authentication);
+    public User updateUserData(final User myUser, CommonUpdateDTO dto){
         final var person = myUser.getPerson();
 
         person.setPhoneNumber(dto.phoneNumber());
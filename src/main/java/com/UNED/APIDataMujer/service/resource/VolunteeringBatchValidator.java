@@ -0,0 +1,155 @@
+package com.UNED.APIDataMujer.service.resource;
+
+import com.UNED.APIDataMujer.entity.Activity;
+import com.UNED.APIDataMujer.entity.Volunteering;
+import com.UNED.APIDataMujer.exception.BusinessValidationException;
+import com.UNED.APIDataMujer.repository.VolunteeringRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validador de lotes de voluntariados de una misma actividad. Revisa en memoria las reglas
+ * de cada turno y, con una sola consulta, recupera los turnos existentes de los usuarios del
+ * lote en actividades del mismo organizador. Con ellos arma el conjunto de intervalos de
+ * cada usuario y detecta los solapamientos (incluidos los del propio lote) ordenándolos por
+ * fecha de inicio, en O(n log n).
+ * @author AHKolodin
+ * */
+@Component
+@RequiredArgsConstructor
+public class VolunteeringBatchValidator {
+
+    /**
+     * Turno de un usuario.
+     * @param start fecha y hora inicial del turno.
+     * @param end fecha y hora final del turno.
+     * @param username username del usuario si el turno pertenece al lote; NULL si ya existe en la BD.
+     * */
+    private record Interval(LocalDateTime start, LocalDateTime end, String username) {
+        boolean isNew(){
+            return username != null;
+        }
+    }
+
+    private final VolunteeringRepository volunteeringRepository;
+
+    /**
+     * Función encargada de validar un lote de voluntariados aún no persistidos.
+     * @param activity actividad de todos los voluntariados del lote.
+     * @param organizerId identificador del organizador principal de la actividad.
+     * @param batch voluntariados a validar.
+     * @throws BusinessValidationException en caso de que alguna regla de negocio sea quebrantada:
+     * actividad finalizada, fecha de inicio posterior a la de fin, turno fuera del rango de la
+     * actividad, horas de voluntariado inválidas o turnos solapados de un mismo usuario en
+     * actividades del mismo organizador.
+     * */
+    public void validate(Activity activity, long organizerId, List<Volunteering> batch){
+        final Map<Long, List<Interval>> intervals = new HashMap<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        for(var volunteering : batch){
+            final var username = volunteering.getUser().getUsername();
+            final var start = volunteering.getStartShift();
+            final var end = volunteering.getEndShift();
+            validateShift(activity, start, end, username);
+
+            intervals.computeIfAbsent(volunteering.getUser().getId(), id -> new ArrayList<>())
+                    .add(new Interval(start, end, username));
+            if(from == null || start.isBefore(from)) from = start;
+            if(to == null || end.isAfter(to)) to = end;
+        }
+
+        final var userIds = new ArrayList<>(intervals.keySet());
+        userIds.removeIf(id -> id == organizerId);
+        if(!userIds.isEmpty())
+            volunteeringRepository.findShiftsWithSameOrganizer(userIds, organizerId, from, to)
+                    .forEach(row -> intervals.get(row.userId())
+                            .add(new Interval(row.startShift(), row.endShift(), null)));
+
+        intervals.values().forEach(this::checkOverlaps);
+    }
+
+    /**
+     * Función encargada de validar las reglas propias de un turno, sin considerar los demás
+     * turnos del usuario.
+     * @param activity actividad del voluntariado.
+     * @param startShift fecha y hora inicial del turno del voluntariado.
+     * @param endShift fecha y hora final del turno del voluntariado.
+     * @param username username del usuario que realizará el voluntariado.
+     * @throws BusinessValidationException en caso de que alguna regla del turno sea quebrantada.
+     * */
+    public void validateShift(Activity activity, LocalDateTime startShift,
+                              LocalDateTime endShift, String username){
+        if(activity.isFinalized())
+            throw new BusinessValidationException("La operación de voluntariado del usuario "
+                    + username + " no se puede llevar a cabo porque la actividad está concluida.");
+
+        if(!startShift.isBefore(endShift))
+            throw new BusinessValidationException("La operación de voluntariado del usuario "
+                    + username + " no se puede llevar a cabo porque la fecha de inicio está " +
+                    "después de la fecha de cierre de su turno.");
+
+        if(startShift.isBefore(activity.getStartDate()) ||
+                endShift.isAfter(activity.getEndDate()))
+            throw new BusinessValidationException("La operación de voluntariado del usuario "
+                    + username + " no se puede llevar a cabo porque su fecha de voluntariado " +
+                    "está fuera del rango de la actividad.");
+
+        var shiftLength = ChronoUnit.HOURS.between(startShift, endShift);
+        if(shiftLength < 1 || shiftLength > 12)
+            throw new BusinessValidationException("La operación de voluntariado del usuario "
+                    + username + " no se puede llevar a cabo porque los turnos deben abarcar " +
+                    "de 1 hora mínimo a 12 horas máximo.");
+    }
+
+    /**
+     * Función auxiliar que recorre los turnos de un usuario ordenados por inicio. Un turno se
+     * solapa con alguno anterior si inicia antes del mayor fin visto, por lo que basta llevar
+     * el mayor fin de los turnos existentes y el de los turnos del lote. Los solapamientos
+     * entre turnos ya existentes no se consideran.
+     * @param intervals turnos del usuario: los del lote y los existentes.
+     * @throws BusinessValidationException en caso de que un turno del lote se solape con otro.
+     * */
+    private void checkOverlaps(List<Interval> intervals){
+        intervals.sort(Comparator.comparing(Interval::start));
+        LocalDateTime existingEnd = null;
+        LocalDateTime newEnd = null;
+        String username = null;
+
+        for(var interval : intervals){
+            if(interval.isNew()){
+                username = interval.username();
+                if(newEnd != null && interval.start().isBefore(newEnd))
+                    throw new BusinessValidationException("La operación de voluntariado del usuario "
+                            + username + " no se puede llevar a cabo porque el lote contiene " +
+                            "turnos suyos que se solapan.");
+                if(existingEnd != null && interval.start().isBefore(existingEnd))
+                    throw sameOrganizerConflict(username);
+                newEnd = max(newEnd, interval.end());
+            }else{
+                if(newEnd != null && interval.start().isBefore(newEnd))
+                    throw sameOrganizerConflict(username);
+                existingEnd = max(existingEnd, interval.end());
+            }
+        }
+    }
+
+    private static LocalDateTime max(LocalDateTime current, LocalDateTime candidate){
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private static BusinessValidationException sameOrganizerConflict(String username){
+        return new BusinessValidationException("La operación de voluntariado del usuario "
+                + username + " no se puede llevar a cabo porque no puede participar en " +
+                "dos actividades del mismo organizador que se lleguen a solapar.");
+    }
+}
@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.BaseVolunteeringRegisterDTO;
 import com.UNED.APIDataMujer.dto.request.VolunteeringUpdateDTO;
@@ -7,23 +8,27 @@ import com.UNED.APIDataMujer.dto.request.VolunteeringWrapperDTO;
 import com.UNED.APIDataMujer.dto.response.VolunteeringDTO;
 import com.UNED.APIDataMujer.entity.Activity;
 import com.UNED.APIDataMujer.entity.User;
-import org.springframework.security.core.Authentication;
 
 import java.time.LocalDateTime;
 
 public interface VolunteeringService {
     VolunteeringDTO getVolunteering(long id);
-    SimplePage<VolunteeringDTO> getMyPendingVolunteering(Authentication auth, int page);
-    SimplePage<VolunteeringDTO> getVolunteeringForAnActivity(final Authentication auth,
+    SimplePage<VolunteeringDTO> getMyPendingVolunteering(User user, int page, boolean includeTotal);
+    CursorPage<VolunteeringDTO> getMyPendingVolunteering(User user, String cursor);
+    SimplePage<VolunteeringDTO> getVolunteeringForAnActivity(final User user,
                                                              long activityId,
-                                                             int page);
+                                                             int page,
+                                                             boolean includeTotal);
+    CursorPage<VolunteeringDTO> getVolunteeringForAnActivity(final User user,
+                                                             long activityId,
+                                                             String cursor);
     void createOrganizerVolunteering(String username,
                                      Activity activity,
                                      LocalDateTime startDate,
                                      LocalDateTime endDate);
-    long createVolunteering(Authentication auth, VolunteeringWrapperDTO dto);
-    VolunteeringDTO createMyVolunteering(Authentication auth, BaseVolunteeringRegisterDTO dto);
+    long createVolunteering(User user, VolunteeringWrapperDTO dto);
+    VolunteeringDTO createMyVolunteering(User user, BaseVolunteeringRegisterDTO dto);
     boolean isUserOrganizer(long activityId, long userId);
     VolunteeringDTO updateVolunteering(long volunteeringId, VolunteeringUpdateDTO dto);
-    void deleteVolunteering(long volunteeringId, Authentication auth);
+    void deleteVolunteering(long volunteeringId, User user);
 }
@@ -1,5 +1,6 @@
 package com.UNED.APIDataMujer.service.resource;
 
+import com.UNED.APIDataMujer.dto.CursorPage;
 import com.UNED.APIDataMujer.dto.SimplePage;
 import com.UNED.APIDataMujer.dto.request.BaseVolunteeringRegisterDTO;
 import com.UNED.APIDataMujer.dto.request.VolunteeringRegisterDTO;
@@ -7,26 +8,30 @@ import com.UNED.APIDataMujer.dto.request.VolunteeringUpdateDTO;
 import com.UNED.APIDataMujer.dto.request.VolunteeringWrapperDTO;
 import com.UNED.APIDataMujer.dto.response.VolunteeringDTO;
 import com.UNED.APIDataMujer.entity.Activity;
+import com.UNED.APIDataMujer.entity.User;
 import com.UNED.APIDataMujer.entity.Volunteering;
 import com.UNED.APIDataMujer.enums.Role;
 import com.UNED.APIDataMujer.exception.BusinessValidationException;
 import com.UNED.APIDataMujer.exception.ResourceNotFoundException;
+import com.UNED.APIDataMujer.mapper.KeysetCursor;
 import com.UNED.APIDataMujer.mapper.PaginationUtil;
 import com.UNED.APIDataMujer.mapper.VolunteeringMapper;
 import com.UNED.APIDataMujer.repository.ActivityRepository;
 import com.UNED.APIDataMujer.repository.VolunteeringRepository;
+import com.UNED.APIDataMujer.service.cache.CountCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * Clase encargada de gestionar la lógica de negocio relacionada con los
@@ -44,6 +49,8 @@ public class VolunteeringServiceImpl implements VolunteeringService{
     private final VolunteeringMapper volunteeringMapper;
 
     private final VolunteeringRepository volunteeringRepository;
+    private final VolunteeringBatchValidator volunteeringBatchValidator;
+    private final CountCache countCache;
     private final ActivityRepository activityRepository;
 
     /**
@@ -66,42 +73,106 @@ public class VolunteeringServiceImpl implements VolunteeringService{
     /**
      * Función de interfaz. Esta función se encarga de obtener todos los voluntariados
      * pendientes (de actividades sin finalizar) de la persona que solicita.
-     * @param auth credenciales de autentificación del usuario.
+     * @param user usuario autenticado que realiza la petición.
+     * @param page indicador de paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return lista de voluntariados con detalles de la actividad.
      * */
     @Override
-    public SimplePage<VolunteeringDTO> getMyPendingVolunteering(Authentication auth, int page) {
-        final var user = userService.getMyUser(auth);
+    @Transactional(readOnly = true)
+    public SimplePage<VolunteeringDTO> getMyPendingVolunteering(User user, int page,
+                                                                boolean includeTotal) {
         Pageable pageable = PageRequest.of(page, 25, Sort.by("startShift").ascending());
-        Page<Volunteering> volunteering =
-                volunteeringRepository.findByUserIdAndActivityIsFinalizedFalse(user.getId(), pageable);
+        Slice<VolunteeringDTO> volunteering =
+                volunteeringRepository.findPendingDtosByUserId(user.getId(), pageable);
+
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.VOLUNTEERING, "pending|" + user.getId(),
+                        () -> volunteeringRepository.countPendingByUserId(user.getId())) :
+                null;
+        return PaginationUtil.wrapInPage(volunteering, total);
+    }
 
-        return PaginationUtil.wrapInPage(volunteering, volunteeringMapper::toDto);
+    /**
+     * Función de interfaz. Variante por keyset (inicio del turno e id) de los voluntariados
+     * pendientes de la persona que solicita.
+     * @param user usuario autenticado que realiza la petición.
+     * @param cursor cursor del último voluntariado entregado. Vacío para la primera página.
+     * @return página de voluntariados y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<VolunteeringDTO> getMyPendingVolunteering(User user, String cursor) {
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var volunteering = volunteeringRepository.findPendingDtosByUserIdAfter(user.getId(),
+                after == null ? null : after.dateTimeKey(),
+                after == null ? 0 : after.id(),
+                Limit.of(26));
+
+        return PaginationUtil.wrapInCursorPage(volunteering, 25, Function.identity(),
+                v -> KeysetCursor.of(v.startShift(), v.id()));
     }
 
     /**
      * Función de interfaz. Esta función se encarga de obtener todos los voluntariados
      * de una actividad.
      * @param activityId id de la actividad a buscar.
+     * @param page indicador de paginación.
+     * @param includeTotal indica si se debe incluir el total de elementos, servido desde caché.
      * @return lista de voluntariados con detalles de la actividad.
      * */
     @Override
-    public SimplePage<VolunteeringDTO> getVolunteeringForAnActivity(final Authentication auth,
+    @Transactional(readOnly = true)
+    public SimplePage<VolunteeringDTO> getVolunteeringForAnActivity(final User user,
+                                                                    long activityId,
+                                                                    int page,
+                                                                    boolean includeTotal) {
+        canSeeActivityVolunteering(user, activityId);
+
+        Pageable pageable = PageRequest.of(page, 25, Sort.by("id").ascending());
+        Slice<VolunteeringDTO> volunteering =
+                volunteeringRepository.findDtosByActivityId(activityId, pageable);
+        Long total = includeTotal ?
+                countCache.count(CountCache.Scope.VOLUNTEERING, "activity|" + activityId,
+                        () -> volunteeringRepository.countByActivityId(activityId)) :
+                null;
+        return PaginationUtil.wrapInPage(volunteering, total);
+    }
+
+    /**
+     * Función de interfaz. Variante por keyset (id) de los voluntariados de una actividad.
+     * @param activityId id de la actividad a buscar.
+     * @param cursor cursor del último voluntariado entregado. Vacío para la primera página.
+     * @return página de voluntariados y el cursor de la siguiente.
+     * */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<VolunteeringDTO> getVolunteeringForAnActivity(final User user,
                                                                     long activityId,
-                                                                    int page) {
-        var user = userService.getMyUser(auth);
+                                                                    String cursor) {
+        canSeeActivityVolunteering(user, activityId);
+
+        final var after = KeysetCursor.decodeOrNull(cursor);
+        var volunteering = volunteeringRepository.findDtosByActivityIdAfter(activityId,
+                after == null ? 0 : after.id(),
+                Limit.of(26));
+        return PaginationUtil.wrapInCursorPage(volunteering, 25, Function.identity(),
+                v -> KeysetCursor.of(v.id()));
+    }
 
+    /**
+     * Función auxiliar que valida que la actividad exista y que quien solicita sea su
+     * organizador o administrador del sistema.
+     * @param user usuario autenticado que realiza la petición.
+     * @param activityId id de la actividad.
+     * */
+    private void canSeeActivityVolunteering(final User user, long activityId){
         if(!activityRepository.existsById(activityId))
             throw new ResourceNotFoundException("La actividad "+activityId+" no existe");
 
         if(!isUserOrganizer(activityId, user.getId()) && user.getRole() != Role.ROLE_ADMIN)
             throw new BusinessValidationException("La actividad "+activityId+" y sus voluntariados no " +
                     "pueden ser consultadas por su persona");
-
-        Pageable pageable = PageRequest.of(page, 25, Sort.by("id").ascending());
-        Page<Volunteering> volunteering =
-                volunteeringRepository.findByActivityId(activityId, pageable);
-        return PaginationUtil.wrapInPage(volunteering, volunteeringMapper::toDto);
     }
 
     /**
@@ -134,20 +205,25 @@ public class VolunteeringServiceImpl implements VolunteeringService{
 
         var volunteering = volunteeringMapper.toEntity(user, activity);
         volunteeringRepository.save(volunteering);
+        countCache.invalidate(CountCache.Scope.VOLUNTEERING);
     }
 
     /**
      * Función de interfaz. Función encargada de analizar el lote de voluntariados
-     * antes de insertar los voluntariados.
+     * antes de insertar los voluntariados. La actividad, el organizador y los usuarios se
+     * recuperan una sola vez; el lote completo se valida en memoria y se inserta en un solo
+     * saveAll.
      * @return id de la actividad para consultar sus voluntariados.
      * @throws BusinessValidationException en caso de que exista una inconsistencia en los voluntariados.
+     * @throws ResourceNotFoundException en caso de que la actividad, su organizador o algún usuario
+     * del lote no existan.
      * */
     @Override
     @Transactional
-    public long createVolunteering(final Authentication auth, VolunteeringWrapperDTO dto) {
-        var user = userService.getMyUser(auth);
+    public long createVolunteering(final User user, VolunteeringWrapperDTO dto) {
         var activityId = dto.activityId();
-        if(user.getRole() != Role.ROLE_ADMIN && isUserOrganizer(activityId, user.getId()))
+        final long organizerId = getOrganizerId(activityId);
+        if(user.getRole() != Role.ROLE_ADMIN && organizerId != user.getId())
             throw new BusinessValidationException("Esta operación no puede ser realizada por su persona " +
                     "por falta de rol o estado ORGANIZADOR PRINCIPAL.");
 
@@ -160,7 +236,23 @@ public class VolunteeringServiceImpl implements VolunteeringService{
             throw new BusinessValidationException("Existe una inconsistencia en el lote voluntariados: " +
                     "No todos los voluntariados están dirigidos a la misma actividad");
 
-        list.forEach(this::createVolunteering);
+        final var activity = getActivity(activityId);
+        final var users = userService.getUsersByUsernames(list.stream()
+                .map(VolunteeringRegisterDTO::username)
+                .toList());
+
+        final List<Volunteering> batch = new ArrayList<>(list.size());
+        for(var register : list){
+            final var volunteer = users.get(register.username());
+            if(volunteer == null)
+                throw new ResourceNotFoundException("No se ha encontrado ningún usuario registrado con el " +
+                        "nombre de usuario: "+register.username()+".");
+            batch.add(volunteeringMapper.toEntity(volunteer, activity, register));
+        }
+
+        volunteeringBatchValidator.validate(activity, organizerId, batch);
+        volunteeringRepository.saveAll(batch);
+        countCache.invalidate(CountCache.Scope.VOLUNTEERING);
         return activityId;
     }
 
@@ -168,14 +260,13 @@ public class VolunteeringServiceImpl implements VolunteeringService{
      * Función de interfaz. Función encargada de preparar la inserción de un voluntariado
      * propio.
      * @param dto Dto. Con información del voluntariado.
-     * @param auth credenciales del usuario.
+     * @param user usuario autenticado que realiza la petición.
      * @return Dto. Del voluntariado insertado.
      * */
     @Override
     @Transactional
-    public VolunteeringDTO createMyVolunteering(final Authentication auth,
+    public VolunteeringDTO createMyVolunteering(final User user,
                                                 BaseVolunteeringRegisterDTO dto) {
-        var user = userService.getMyUser(auth);
         var volunteering = new VolunteeringRegisterDTO(dto, user.getUsername());
         return createVolunteering(volunteering);
     }
@@ -197,14 +288,11 @@ public class VolunteeringServiceImpl implements VolunteeringService{
         final var user = userService.getUserByUsername(username);
 
 
-        validateVolunteering(activity,
-                dto.volunteeringData().startShift(),
-                dto.volunteeringData().endShift(),
-                user.getId(),
-                user.getUsername());
-
         var volunteering = volunteeringMapper.toEntity(user, activity, dto);
+        volunteeringBatchValidator.validate(activity, getOrganizerId(activity.getId()),
+                List.of(volunteering));
         var myVolunteering = volunteeringRepository.save(volunteering);
+        countCache.invalidate(CountCache.Scope.VOLUNTEERING);
         return volunteeringMapper.toDto(myVolunteering);
     }
 
@@ -217,12 +305,7 @@ public class VolunteeringServiceImpl implements VolunteeringService{
      * */
     @Override
     public boolean isUserOrganizer(long activityId, long userId) {
-        var organizerId = volunteeringRepository
-                .findOrganizerIdByActivityId(activityId).orElseThrow(() ->
-                        new ResourceNotFoundException("Ocurrió un error al intentar recuperar al organizador " +
-                                "de la actividad "+activityId+".")
-                );
-        return organizerId.equals(userId);
+        return getOrganizerId(activityId) == userId;
     }
 
     /**
@@ -270,7 +353,7 @@ public class VolunteeringServiceImpl implements VolunteeringService{
     /**
      * Función de interfaz. Se encarga de dar de baja a un voluntariado.
      * @param volunteeringId identificador del voluntariado a dar de baja.
-     * @param auth credenciales del usuario que desea eliminar el voluntariado.
+     * @param user usuario autenticado que realiza la petición.
      * @throws ResourceNotFoundException en caso de que el voluntariado no exista en la base de datos.
      * @throws BusinessValidationException en caso de que el voluntariado no pueda ser eliminado por
      * ya sea porque es el voluntariado del organizador principal; o en caso de no ser administrador
@@ -278,7 +361,7 @@ public class VolunteeringServiceImpl implements VolunteeringService{
      * */
     @Override
     @Transactional
-    public void deleteVolunteering(long volunteeringId, final Authentication auth) {
+    public void deleteVolunteering(long volunteeringId, final User user) {
         var volunteering = volunteeringRepository.findById(volunteeringId)
                 .orElseThrow(() ->
                         new ResourceNotFoundException("No se ha podido encontrar el voluntariado a eliminar.")
@@ -288,20 +371,19 @@ public class VolunteeringServiceImpl implements VolunteeringService{
             throw new BusinessValidationException("Dado que este voluntariado está marcado como " +
                     "\"voluntariado de organizador principal\" no es posible eliminarlo.");
 
-        final var currentUser = userService.getMyUser(auth);
-
         if(volunteering.getActivity().isFinalized() &&
-                currentUser.getRole() != Role.ROLE_ADMIN) {
+                user.getRole() != Role.ROLE_ADMIN) {
             throw new BusinessValidationException("No es posible eliminar voluntariados " +
                     "de actividades finalizadas.");
         }
 
-        if(currentUser.getRole() != Role.ROLE_ADMIN &&
-        !currentUser.equals(volunteering.getUser()))
+        if(user.getRole() != Role.ROLE_ADMIN &&
+        user.getId() != volunteering.getUser().getId())
             throw new BusinessValidationException("Usted está intentando eliminar un voluntariado " +
                     "que no le pertenece.");
 
         volunteeringRepository.delete(volunteering);
+        countCache.invalidate(CountCache.Scope.VOLUNTEERING);
     }
 
     /**
@@ -328,6 +410,20 @@ public class VolunteeringServiceImpl implements VolunteeringService{
                         new ResourceNotFoundException("La actividad con id "+id+" no se ha encontrado."));
     }
 
+    /**
+     * Función auxiliar encargada de recuperar el organizador principal de una actividad.
+     * @param activityId identificador de la actividad.
+     * @return identificador del usuario organizador.
+     * @throws ResourceNotFoundException en caso de que no se pueda recuperar el organizador de la actividad.
+     * */
+    private long getOrganizerId(long activityId){
+        return volunteeringRepository.findOrganizerIdByActivityId(activityId)
+                .orElseThrow(() ->
+                        new ResourceNotFoundException("Ocurrió un error al intentar recuperar al organizador " +
+                                "de la actividad "+activityId+".")
+                );
+    }
+
     /**
      * Función auxiliar encargada de validar los datos de un voluntariado a persistir.
      * @param activity actividad del voluntariado.
@@ -342,36 +438,13 @@ public class VolunteeringServiceImpl implements VolunteeringService{
      * */
     private void validateVolunteering(Activity activity, LocalDateTime startShift,
                                       LocalDateTime endShift, long userId, String username){
-        if(activity.isFinalized())
-            throw new BusinessValidationException("La operación de voluntariado del usuario "
-                    + username + " no se puede llevar a cabo porque la actividad está concluida.");
-
-        if(!startShift.isBefore(endShift))
-            throw new BusinessValidationException("La operación de voluntariado del usuario "
-                    + username + " no se puede llevar a cabo porque la fecha de inicio está " +
-                    "después de la fecha de cierre de su turno.");
-
-        if(startShift.isBefore(activity.getStartDate()) ||
-                endShift.isAfter(activity.getEndDate()))
-            throw new BusinessValidationException("La operación de voluntariado del usuario "
-                    + username + " no se puede llevar a cabo porque su fecha de voluntariado " +
-                    "está fuera del rango de la actividad.");
-
-        var shiftLength = ChronoUnit.HOURS.between(startShift, endShift);
-        if(shiftLength < 1 || shiftLength > 12)
-            throw new BusinessValidationException("La operación de voluntariado del usuario "
-                    + username + " no se puede llevar a cabo porque los turnos deben abarcar " +
-                    "de 1 hora mínimo a 12 horas máximo.");
-
-        var organizerId = volunteeringRepository.findOrganizerIdByActivityId(activity.getId())
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("No ha sido posible consultar al " +
-                                "organizador de la actividad."));
+        volunteeringBatchValidator.validateShift(activity, startShift, endShift, username);
 
-        var sameOrganizerConflict = volunteeringRepository.existsConflictWithSameOrganizer(
-                userId, organizerId, activity.getId(), startShift, endShift);
+        final long organizerId = getOrganizerId(activity.getId());
+        if(organizerId == userId) return;
 
-        if(sameOrganizerConflict && !isUserOrganizer(activity.getId(), userId))
+        if(volunteeringRepository.existsConflictWithSameOrganizer(
+                userId, organizerId, activity.getId(), startShift, endShift))
             throw new BusinessValidationException("La operación de voluntariado del usuario "
                     + username + " no se puede llevar a cabo porque no puede participar en " +
                     "dos actividades del mismo organizador que se lleguen a solapar.");
@@ -1,8 +1,8 @@
-CREATE DATABASE IF NOT EXISTS AsoDataMujerDB 
-    DEFAULT CHARACTER SET utf8 
-    COLLATE utf8_spanish_ci;
-
-USE AsoDataMujerDB;
+-- Juego de caracteres y colación explícitos (los mismos criterios de orden y comparación
+-- del antiguo init.sql, utf8_spanish_ci, con soporte Unicode completo). Sin esto, una BD
+-- nueva en MySQL 8 usaría utf8mb4_0900_ai_ci y cambiarían el orden, los LIKE y las
+-- comparaciones de las llaves únicas (usuario, email).
+ALTER DATABASE CHARACTER SET utf8mb4 COLLATE utf8mb4_spanish_ci;
 
 CREATE TABLE TBDMMAEPersonas(
 	Id BIGINT AUTO_INCREMENT,
@@ -127,4 +127,4 @@ CREATE TABLE TBDMDETTokens(
     CONSTRAINT TBDMDETTokensFKTBDMMAEUsuarios FOREIGN KEY(UsuariosId) REFERENCES TBDMMAEUsuarios(Id) 
     ON DELETE CASCADE
     ON UPDATE CASCADE
-);
\ No newline at end of file
+);
@@ -0,0 +1,2 @@
+ALTER TABLE TBDMMAEUsuarios
+    ADD COLUMN EpocaToken BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,9 @@
+ALTER TABLE TBDMDETTokens
+    ADD COLUMN TokenHash varchar(64) NULL AFTER TipoToken;
+
+UPDATE TBDMDETTokens SET TokenHash = SHA2(Token, 256);
+
+ALTER TABLE TBDMDETTokens
+    MODIFY TokenHash varchar(64) NOT NULL,
+    ADD CONSTRAINT UQTBDMDETTokensTokenHash UNIQUE (TokenHash),
+    DROP COLUMN Token;
@@ -0,0 +1,19 @@
+ALTER TABLE TBDMDETTokens
+    ADD COLUMN FechaExpiracion DATETIME NULL AFTER EstaRevocado;
+
+-- Los tokens ya revocados o expirados quedan listos para la purga. Al resto se les da el
+-- tiempo de vida configurado para su tipo (placeholders de Flyway, en milisegundos; ver
+-- spring.flyway.placeholders en application.properties). Se usa la hora local (NOW()),
+-- igual que LocalDateTime.now() del lado de la API al escribir y comparar la columna.
+UPDATE TBDMDETTokens
+SET FechaExpiracion = CASE
+    WHEN EstaRevocado OR EstaExpirado THEN NOW()
+    WHEN TipoToken = 'BEARER' THEN NOW() + INTERVAL (${bearer-expiration} DIV 1000) SECOND
+    WHEN TipoToken = 'ACTIVATION' THEN NOW() + INTERVAL (${activation-expiration} DIV 1000) SECOND
+    WHEN TipoToken = 'PASSWORD_RESET' THEN NOW() + INTERVAL (${password-reset-expiration} DIV 1000) SECOND
+    ELSE NOW()
+END;
+
+ALTER TABLE TBDMDETTokens
+    MODIFY FechaExpiracion DATETIME NOT NULL,
+    ADD INDEX IXTBDMDETTokensFechaExpiracion (FechaExpiracion);
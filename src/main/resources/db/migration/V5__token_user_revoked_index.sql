@@ -0,0 +1,2 @@
+ALTER TABLE TBDMDETTokens
+    ADD INDEX IXTBDMDETTokensUsuariosIdEstaRevocado (UsuariosId, EstaRevocado);
@@ -0,0 +1,36 @@
+-- Índices secundarios derivados de las consultas de los repositorios.
+
+-- ActivityRepository.findByIsFinalizedFalse / findByIsFinalizedFalseAndEndDateBefore
+CREATE INDEX IXTBDMMAEActividadesEstaCerradaFechaInicio
+    ON TBDMMAEActividades (EstaCerrada, FechaInicio);
+CREATE INDEX IXTBDMMAEActividadesEstaCerradaFechaFin
+    ON TBDMMAEActividades (EstaCerrada, FechaFin);
+
+-- PaymentRepository.existsByUserAndIsPaidTrue / findTopByUserAndClassificationAndIsPaidTrue... /
+-- sumPaidMonthlyByUser / findByUser
+CREATE INDEX IXTBDMDETPagosUsuariosIdEstaPagadoClasificacionFechaPago
+    ON TBDMDETPagos (UsuariosId, EstaPagado, Clasificacion, FechaPago);
+-- PaymentRepository.findUsersWithPaidMonthlyPaymentsPaged
+CREATE INDEX IXTBDMDETPagosClasificacionEstaPagadoUsuariosIdFechaPago
+    ON TBDMDETPagos (Clasificacion, EstaPagado, UsuariosId, FechaPago);
+-- PaymentRepository.findByIsPaid
+CREATE INDEX IXTBDMDETPagosEstaPagado
+    ON TBDMDETPagos (EstaPagado);
+
+-- ParticipationRepository.findByActivityId / findByActivityIdAndStatusIn
+CREATE INDEX IXTBDMRELAccionesActividadesIdEstado
+    ON TBDMRELAcciones (ActividadesId, Estado);
+-- ParticipationRepository.existsByUserIdAndActivityIdAndStatusNot /
+-- findByUserIdAndActivityIsFinalizedFalseAndStatusNot
+CREATE INDEX IXTBDMRELAccionesUsuariosIdActividadesIdEstado
+    ON TBDMRELAcciones (UsuariosId, ActividadesId, Estado);
+
+-- VolunteeringRepository.existsOrganizerConflict
+CREATE INDEX IXTBDMRELVoluntariadosUsuariosIdEsOrganizador
+    ON TBDMRELVoluntariados (UsuariosId, EsOrganizador);
+-- VolunteeringRepository.findOrganizerIdByActivityId / existsConflictWithSameOrganizer (join)
+CREATE INDEX IXTBDMRELVoluntariadosActividadesIdEsOrganizador
+    ON TBDMRELVoluntariados (ActividadesId, EsOrganizador);
+-- VolunteeringRepository.existsConflictWithSameOrganizer (rango de turnos)
+CREATE INDEX IXTBDMRELVoluntariadosUsuariosIdInicioTurnoFinTurno
+    ON TBDMRELVoluntariados (UsuariosId, InicioTurno, FinTurno);
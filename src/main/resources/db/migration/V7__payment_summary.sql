@@ -0,0 +1,37 @@
+-- Resumen de pagos por usuario mantenido en la misma transacción que cada cambio
+-- de TBDMDETPagos. Lo consultan el estado de afiliación/contribución y el reporte
+-- de afiliados.
+CREATE TABLE TBDMDETResumenPagos(
+    UsuariosId BIGINT NOT NULL,
+    CantidadPagados BIGINT NOT NULL,
+    TotalPagado DECIMAL (12, 2) NOT NULL,
+    TotalMensualidades DECIMAL (12, 2) NOT NULL,
+    UltimaMensualidad DATETIME,
+    VencimientoAfiliacion DATETIME,
+    CONSTRAINT PKTBDMDETResumenPagosUsuariosId PRIMARY KEY (UsuariosId),
+    CONSTRAINT TBDMDETResumenPagosFKTBDMMAEUsuarios FOREIGN KEY(UsuariosId) REFERENCES TBDMMAEUsuarios(Id)
+    ON DELETE CASCADE
+    ON UPDATE CASCADE
+);
+
+-- PaymentSummaryRepository.findReportFirst / findReportAfter
+CREATE INDEX IXTBDMDETResumenPagosUltimaMensualidadUsuariosId
+    ON TBDMDETResumenPagos (UltimaMensualidad DESC, UsuariosId ASC);
+-- UserRepository.expireAffiliates
+CREATE INDEX IXTBDMDETResumenPagosVencimientoAfiliacion
+    ON TBDMDETResumenPagos (VencimientoAfiliacion);
+
+INSERT INTO TBDMDETResumenPagos (UsuariosId, CantidadPagados, TotalPagado, TotalMensualidades,
+                                 UltimaMensualidad, VencimientoAfiliacion)
+SELECT UsuariosId,
+       COUNT(*),
+       SUM(MontoTotal),
+       COALESCE(SUM(CASE WHEN Clasificacion = 'MENSUALIDAD' THEN MontoTotal END), 0),
+       MAX(CASE WHEN Clasificacion = 'MENSUALIDAD' THEN FechaPago END),
+       DATE_ADD(MAX(CASE WHEN Clasificacion = 'MENSUALIDAD' THEN FechaPago END), INTERVAL 1 MONTH)
+FROM TBDMDETPagos
+WHERE EstaPagado = TRUE
+GROUP BY UsuariosId;
+
+-- El reporte de afiliados ya no agrupa TBDMDETPagos; el índice de V6 para ese reporte deja de usarse.
+DROP INDEX IXTBDMDETPagosClasificacionEstaPagadoUsuariosIdFechaPago ON TBDMDETPagos;
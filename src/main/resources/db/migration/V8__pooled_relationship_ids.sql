@@ -0,0 +1,18 @@
+-- Identificadores asignados por bloques desde la aplicación (TableGenerator con
+-- optimizador pooled-lo) para las tablas que se insertan por lotes. Con IDENTITY
+-- Hibernate debe ejecutar cada INSERT de inmediato y no puede agruparlos en lotes JDBC.
+-- SiguienteId guarda el último id ya reservado (hibernate.id.generator.stored_last_used,
+-- activo por defecto): al reservar un bloque Hibernate entrega desde SiguienteId + 1 y
+-- deja SiguienteId en el último id del bloque. Por eso se inicializa con MAX(Id).
+CREATE TABLE TBDMSISIdentificadores(
+    Tabla VARCHAR(64) NOT NULL,
+    SiguienteId BIGINT NOT NULL,
+    CONSTRAINT PKTBDMSISIdentificadoresTabla PRIMARY KEY (Tabla)
+);
+
+INSERT INTO TBDMSISIdentificadores (Tabla, SiguienteId)
+SELECT 'TBDMRELVoluntariados', COALESCE(MAX(Id), 0) FROM TBDMRELVoluntariados;
+INSERT INTO TBDMSISIdentificadores (Tabla, SiguienteId)
+SELECT 'TBDMRELAcciones', COALESCE(MAX(Id), 0) FROM TBDMRELAcciones;
+INSERT INTO TBDMSISIdentificadores (Tabla, SiguienteId)
+SELECT 'TBDMDETPagos', COALESCE(MAX(Id), 0) FROM TBDMDETPagos;
@@ -0,0 +1,7 @@
+-- Todo usuario tiene su fila de resumen desde el registro, así que PaymentSummaryService
+-- solo la bloquea (SELECT ... FOR UPDATE) y ya no la inserta al vuelo. Se completan los
+-- usuarios que V7 no cubrió por no tener pagos pagados.
+INSERT INTO TBDMDETResumenPagos (UsuariosId, CantidadPagados, TotalPagado, TotalMensualidades)
+SELECT u.Id, 0, 0, 0
+FROM TBDMMAEUsuarios u
+WHERE NOT EXISTS (SELECT 1 FROM TBDMDETResumenPagos s WHERE s.UsuariosId = u.Id);
@@ -0,0 +1,115 @@
+package com.UNED.APIDataMujer.controller;
+
+import com.UNED.APIDataMujer.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cuenta las sentencias SQL que ejecuta cada endpoint "propio" (/me) con la cuenta de
+ * administrador sembrada al iniciar. Con @CurrentUser el usuario autenticado se carga una
+ * sola vez por petición, junto con su persona, y los servicios lo reciben ya resuelto, por
+ * lo que cada endpoint cuesta esa carga más su propia consulta.
+ * La primera llamada calienta las cachés de tokens y épocas; se mide la segunda.
+ * */
+@SpringBootTest(properties = {
+        "APP_BASE_URL=http://localhost:8080",
+        "JWT_SECRET_KEY=5bVX/rgReNJI70NJw06b63+S1arVVGPBcJ8yx4YDRSvMD/Df9P3CVlAff/X8OZ/53UYzVqKCCAHj4r3CXSeF/A==",
+        "JWT_EXPIRATION=900000",
+        "JWT_REFRESH_EXPIRATION=86400000",
+        "MYSQL_DATABASE=test",
+        "MYSQL_USER=test",
+        "MYSQL_PASSWORD=test",
+        "SPRING_MAIL_USERNAME=noreply@datamujer.test",
+        "SPRING_MAIL_PASSWORD=test",
+        "application.rate-limit.enabled=false",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class EndpointStatementCountTest {
+
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    private static final String CLIENT_NAME = "DataMujer-Client";
+    private static final String CLIENT_VERSION = "1.1.0";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String bearer;
+
+    @BeforeEach
+    void login() throws Exception {
+        var response = mockMvc.perform(post("/auth/login")
+                        .header("X-Client-Name", CLIENT_NAME)
+                        .header("X-Client-Version", CLIENT_VERSION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"username": "DataMujer2022", "password": "D@ta_Muj3e_22"}
+                                """))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        bearer = "Bearer " + objectMapper.readTree(response).get("access_token").asText();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "/user/me, 2",
+            "/payment/me, 2",
+            "/participation/me, 2",
+            "/volunteering/me, 2"
+    })
+    void ownEndpointsLoadTheUserOnce(String path, int maxStatements) throws Exception {
+        perform(path);
+        var statistics = statistics();
+        statistics.clear();
+
+        perform(path);
+
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount())
+                .as("cargas del usuario en %s", path)
+                .isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("sentencias de %s", path)
+                .isLessThanOrEqualTo(maxStatements);
+    }
+
+    private void perform(String path) throws Exception {
+        mockMvc.perform(get(path)
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header("X-Client-Name", CLIENT_NAME)
+                        .header("X-Client-Version", CLIENT_VERSION))
+                .andExpect(status().isOk());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,34 @@
+package com.UNED.APIDataMujer.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvUtilTest {
+
+    @Test
+    void leavesPlainFieldsUntouched() {
+        assertThat(CsvUtil.row("ana", "2025-01-01", "1500.00", "true"))
+                .isEqualTo("ana,2025-01-01,1500.00,true");
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsQuotesOrLineBreaks() {
+        assertThat(CsvUtil.field("a,b")).isEqualTo("\"a,b\"");
+        assertThat(CsvUtil.field("di \"hola\"")).isEqualTo("\"di \"\"hola\"\"\"");
+        assertThat(CsvUtil.field("a\nb")).isEqualTo("\"a\nb\"");
+    }
+
+    @Test
+    void neutralisesFormulaLeadingCharacters() {
+        assertThat(CsvUtil.field("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+        assertThat(CsvUtil.field("+1")).isEqualTo("'+1");
+        assertThat(CsvUtil.field("-1")).isEqualTo("'-1");
+        assertThat(CsvUtil.field("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+    }
+
+    @Test
+    void writesNullAsAnEmptyField() {
+        assertThat(CsvUtil.row("ana", null, "true")).isEqualTo("ana,,true");
+    }
+}
@@ -0,0 +1,91 @@
+package com.UNED.APIDataMujer.mapper;
+
+import com.UNED.APIDataMujer.exception.BusinessValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void idOnlyCursorRoundTrips() {
+        var decoded = KeysetCursor.decode(KeysetCursor.of(42L).encode());
+
+        assertThat(decoded.id()).isEqualTo(42L);
+        assertThat(decoded.key()).isEmpty();
+    }
+
+    @Test
+    void dateTimeCursorRoundTrips() {
+        var key = LocalDateTime.of(2030, 1, 10, 8, 30, 15);
+
+        var decoded = KeysetCursor.decode(KeysetCursor.of(key, 7L).encode());
+
+        assertThat(decoded.dateTimeKey()).isEqualTo(key);
+        assertThat(decoded.id()).isEqualTo(7L);
+    }
+
+    @Test
+    void dateCursorRoundTrips() {
+        var key = LocalDate.of(2030, 2, 28);
+
+        var decoded = KeysetCursor.decode(KeysetCursor.of(key, 9L).encode());
+
+        assertThat(decoded.dateKey()).isEqualTo(key);
+        assertThat(decoded.id()).isEqualTo(9L);
+    }
+
+    @Test
+    void booleanCursorRoundTrips() {
+        assertThat(KeysetCursor.decode(KeysetCursor.of(true, 1L).encode()).booleanKey()).isTrue();
+        assertThat(KeysetCursor.decode(KeysetCursor.of(false, 1L).encode()).booleanKey()).isFalse();
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        var encoded = KeysetCursor.of(LocalDateTime.of(2030, 1, 10, 8, 30), Long.MAX_VALUE).encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertThat(KeysetCursor.decodeOrNull(null)).isNull();
+        assertThat(KeysetCursor.decodeOrNull("")).isNull();
+        assertThat(KeysetCursor.decodeOrNull("  ")).isNull();
+    }
+
+    @Test
+    void malformedCursorsAreRejected() {
+        assertInvalid(() -> KeysetCursor.decode("@@not-base64@@"));
+        assertInvalid(() -> KeysetCursor.decode(encodeRaw("sin-separador")));
+        assertInvalid(() -> KeysetCursor.decode(encodeRaw("2030-01-10|abc")));
+        assertInvalid(() -> KeysetCursor.decodeOrNull(encodeRaw("true|")));
+    }
+
+    @Test
+    void keyOfTheWrongTypeIsRejected() {
+        var dateCursor = KeysetCursor.decode(KeysetCursor.of(LocalDate.of(2030, 1, 1), 1L).encode());
+        var booleanCursor = KeysetCursor.decode(KeysetCursor.of(true, 1L).encode());
+
+        assertInvalid(dateCursor::dateTimeKey);
+        assertInvalid(dateCursor::booleanKey);
+        assertInvalid(booleanCursor::dateKey);
+    }
+
+    private static void assertInvalid(Runnable action) {
+        assertThatThrownBy(action::run)
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessage("El cursor de paginación proporcionado es inválido.");
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package com.UNED.APIDataMujer.repository;
+
+import com.UNED.APIDataMujer.entity.Activity;
+import com.UNED.APIDataMujer.entity.Participation;
+import com.UNED.APIDataMujer.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que los INSERT de las tablas con ids por bloques (V8) se agrupan en lotes JDBC:
+ * 1000 filas no deben costar 1000 sentencias preparadas.
+ * */
+class BatchInsertTest extends MySqlRepositoryTest {
+
+    private static final int ROWS = 1000;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Test
+    void participationsAreInsertedInJdbcBatches(){
+        long activityId = persistActivity("Feria").getId();
+        long userId = persistUser("ana").getId();
+        var statistics = resetStatistics();
+
+        var activity = entityManager.getEntityManager().getReference(Activity.class, activityId);
+        var user = entityManager.getEntityManager().getReference(User.class, userId);
+        var batch = new ArrayList<Participation>(ROWS);
+        for(int i = 0; i < ROWS; i++)
+            batch.add(newParticipation(activity, user));
+
+        participationRepository.saveAll(batch);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // 20 lotes de INSERT de 50 filas más la reserva de, a lo sumo, 21 bloques de ids.
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(100);
+        assertThat(batch).extracting(Participation::getId).doesNotHaveDuplicates();
+    }
+}
@@ -0,0 +1,65 @@
+package com.UNED.APIDataMujer.repository;
+
+import com.UNED.APIDataMujer.enums.ParticipationState;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que las consultas paginadas que proyectan directamente a DTOs no cargan entidades:
+ * tras ejecutarlas el contexto de persistencia sigue vacío, por lo que no hay instancias
+ * gestionadas ni copias para la revisión de cambios (dirty checking).
+ * */
+class DtoProjectionPersistenceContextTest extends MySqlRepositoryTest {
+
+    private static final Pageable PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private VolunteeringRepository volunteeringRepository;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private long userId;
+    private long activityId;
+
+    @BeforeEach
+    void seed(){
+        var activity = persistActivity("Feria");
+        var user = persistUser("ana");
+        persistVolunteering(activity, user, 0);
+        entityManager.persist(newParticipation(activity, user));
+        persistPayment(user, true);
+        userId = user.getId();
+        activityId = activity.getId();
+    }
+
+    @Test
+    void dtoPagesLeaveThePersistenceContextEmpty(){
+        var statistics = resetStatistics();
+
+        assertThat(activityRepository.findActiveDtos(PAGE).getContent()).hasSize(1);
+        assertThat(volunteeringRepository.findPendingDtosByUserId(userId, PAGE).getContent()).hasSize(1);
+        assertThat(volunteeringRepository.findDtosByActivityId(activityId, PAGE).getContent()).hasSize(1);
+        assertThat(participationRepository.findDtosByActivityId(activityId, PAGE).getContent()).hasSize(1);
+        assertThat(participationRepository.findActiveDtosByUserId(userId,
+                ParticipationState.CANCELADO, PAGE).getContent()).hasSize(1);
+        assertThat(paymentRepository.findDtosByUserId(userId, PAGE).getContent()).hasSize(1);
+        assertThat(paymentRepository.findDtosByIsPaid(true, PAGE).getContent()).hasSize(1);
+
+        var session = entityManager.getEntityManager().unwrap(Session.class);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
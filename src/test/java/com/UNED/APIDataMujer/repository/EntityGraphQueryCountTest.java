@@ -0,0 +1,58 @@
+package com.UNED.APIDataMujer.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que las lecturas por id y las páginas de DTOs resuelven sus asociaciones en una
+ * sola sentencia SQL, sin cargas perezosas adicionales (N+1).
+ * */
+class EntityGraphQueryCountTest extends MySqlRepositoryTest {
+
+    @Autowired
+    private VolunteeringRepository volunteeringRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void volunteeringByIdLoadsUserAndActivityInOneQuery(){
+        var activity = persistActivity("Feria");
+        var volunteering = persistVolunteering(activity, persistUser("ana"), 0);
+        var statistics = resetStatistics();
+
+        var found = volunteeringRepository.findById(volunteering.getId()).orElseThrow();
+
+        assertThat(found.getUser().getUsername()).isEqualTo("ana");
+        assertThat(found.getActivity().getActivity()).isEqualTo("Feria");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void userByUsernameLoadsPersonInOneQuery(){
+        persistUser("bea");
+        var statistics = resetStatistics();
+
+        var found = userRepository.findByUsername("bea").orElseThrow();
+
+        assertThat(found.getPerson().getLocation()).isEqualTo("San José");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void volunteeringPageByActivityRunsOneQuery(){
+        var activity = persistActivity("Taller");
+        for(int i = 0; i < 5; i++)
+            persistVolunteering(activity, persistUser("user" + i), i * 3);
+        var statistics = resetStatistics();
+
+        var slice = volunteeringRepository.findDtosByActivityId(activity.getId(), PageRequest.of(0, 3));
+
+        assertThat(slice.getContent()).hasSize(3);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
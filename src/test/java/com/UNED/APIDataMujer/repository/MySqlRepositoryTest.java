@@ -0,0 +1,125 @@
+package com.UNED.APIDataMujer.repository;
+
+import com.UNED.APIDataMujer.entity.Activity;
+import com.UNED.APIDataMujer.entity.Participation;
+import com.UNED.APIDataMujer.entity.Payment;
+import com.UNED.APIDataMujer.entity.Person;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.entity.Volunteering;
+import com.UNED.APIDataMujer.enums.Classification;
+import com.UNED.APIDataMujer.enums.Country;
+import com.UNED.APIDataMujer.enums.Method;
+import com.UNED.APIDataMujer.enums.ParticipationState;
+import com.UNED.APIDataMujer.enums.PersonType;
+import com.UNED.APIDataMujer.enums.Role;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Base de las pruebas de repositorio. Usa un único MySQL 8 por ejecución, con el esquema
+ * creado por las migraciones de Flyway, y omite las pruebas si Docker no está disponible.
+ * También ofrece utilidades para sembrar datos y leer las estadísticas de Hibernate.
+ * */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+abstract class MySqlRepositoryTest {
+
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    static final LocalDateTime ACTIVITY_START = LocalDateTime.of(2030, 1, 10, 8, 0);
+
+    @Autowired
+    protected TestEntityManager entityManager;
+
+    /**
+     * Vacía el contexto de persistencia y reinicia las estadísticas para que solo cuenten
+     * las sentencias que ejecute la prueba a partir de este punto.
+     * @return estadísticas de Hibernate ya reiniciadas.
+     * */
+    protected Statistics resetStatistics(){
+        entityManager.flush();
+        entityManager.clear();
+        var statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    protected User persistUser(String username){
+        var person = Person.builder()
+                .personType(PersonType.FISICA)
+                .phoneNumber("+506 " + username)
+                .country(Country.USA)
+                .location("San José")
+                .build();
+        return entityManager.persist(User.builder()
+                .person(person)
+                .username(username)
+                .email(username + "@datamujer.test")
+                .password("{noop}secreto")
+                .role(Role.ROLE_STANDARD)
+                .registrationDate(LocalDate.of(2030, 1, 1))
+                .isActive(true)
+                .tokenEpoch(0)
+                .build());
+    }
+
+    protected Activity persistActivity(String name){
+        return entityManager.persist(Activity.builder()
+                .activity(name)
+                .description("Actividad de prueba")
+                .location("San José")
+                .isOnSite(true)
+                .startDate(ACTIVITY_START)
+                .endDate(ACTIVITY_START.plusDays(2))
+                .isFinalized(false)
+                .build());
+    }
+
+    protected Volunteering persistVolunteering(Activity activity, User user, int hourOffset){
+        var start = ACTIVITY_START.plusHours(hourOffset);
+        return entityManager.persist(Volunteering.builder()
+                .activity(activity)
+                .user(user)
+                .startShift(start)
+                .endShift(start.plusHours(2))
+                .activityRole("Apoyo")
+                .isMainOrganizer(false)
+                .build());
+    }
+
+    protected Participation newParticipation(Activity activity, User user){
+        return Participation.builder()
+                .activity(activity)
+                .user(user)
+                .registrationDate(LocalDate.of(2030, 1, 1))
+                .startDate(ACTIVITY_START.toLocalDate())
+                .status(ParticipationState.PENDIENTE)
+                .build();
+    }
+
+    protected Payment persistPayment(User user, boolean isPaid){
+        return entityManager.persist(Payment.builder()
+                .user(user)
+                .description("Mensualidad")
+                .classification(Classification.MENSUALIDAD)
+                .method(Method.SINPE)
+                .paymentDate(ACTIVITY_START)
+                .isPaid(isPaid)
+                .totalAmount(new BigDecimal("5000.00"))
+                .build());
+    }
+}
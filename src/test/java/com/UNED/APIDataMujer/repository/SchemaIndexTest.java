@@ -0,0 +1,64 @@
+package com.UNED.APIDataMujer.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaIndexTest extends MySqlRepositoryTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void schemaUsesTheSpanishCollation() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT DEFAULT_COLLATION_NAME FROM information_schema.SCHEMATA WHERE SCHEMA_NAME = DATABASE()",
+                String.class)).isEqualTo("utf8mb4_spanish_ci");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT TABLE_COLLATION FROM information_schema.TABLES " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'TBDMMAEUsuarios'",
+                String.class)).isEqualTo("utf8mb4_spanish_ci");
+    }
+
+    @Test
+    void unfinalizedActivitiesByEndDateCanUseTheirIndex() {
+        assertThat(possibleKeys("SELECT * FROM TBDMMAEActividades " +
+                "WHERE EstaCerrada = false AND FechaFin < NOW()"))
+                .contains("IXTBDMMAEActividadesEstaCerradaFechaFin");
+    }
+
+    @Test
+    void paidPaymentsOfAUserCanUseTheirIndex() {
+        assertThat(possibleKeys("SELECT * FROM TBDMDETPagos " +
+                "WHERE UsuariosId = 1 AND EstaPagado = true AND Clasificacion = 'MENSUALIDAD' " +
+                "ORDER BY FechaPago DESC"))
+                .contains("IXTBDMDETPagosUsuariosIdEstaPagadoClasificacionFechaPago");
+    }
+
+    @Test
+    void participationsOfAnActivityByStateCanUseTheirIndex() {
+        assertThat(possibleKeys("SELECT * FROM TBDMRELAcciones " +
+                "WHERE ActividadesId = 1 AND Estado IN ('INSCRITO', 'COMPLETADO')"))
+                .contains("IXTBDMRELAccionesActividadesIdEstado");
+    }
+
+    @Test
+    void shiftsOfAUserInARangeCanUseTheirIndex() {
+        assertThat(possibleKeys("SELECT Id FROM TBDMRELVoluntariados " +
+                "WHERE UsuariosId = 1 AND InicioTurno < NOW() AND FinTurno > NOW()"))
+                .contains("IXTBDMRELVoluntariadosUsuariosIdInicioTurnoFinTurno");
+    }
+
+    @Test
+    void activeTokensOfAUserCanUseTheirIndex() {
+        assertThat(possibleKeys("SELECT Id FROM TBDMDETTokens WHERE UsuariosId = 1 AND EstaRevocado = false"))
+                .contains("IXTBDMDETTokensUsuariosIdEstaRevocado");
+    }
+
+    private String possibleKeys(String query) {
+        var keys = jdbcTemplate.queryForList("EXPLAIN " + query).get(0).get("possible_keys");
+        return keys == null ? "" : keys.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.UNED.APIDataMujer.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteClassifierTest {
+
+    @Test
+    void publicRootsArePublic() {
+        assertThat(RouteClassifier.isPublic(request("/auth/login"))).isTrue();
+        assertThat(RouteClassifier.isPublic(request("/register/physical"))).isTrue();
+        assertThat(RouteClassifier.isPublic(request("/activate"))).isTrue();
+    }
+
+    @Test
+    void pathsThatOnlyContainAPublicRootAreNotPublic() {
+        assertThat(RouteClassifier.isPublic(request("/users/auth"))).isFalse();
+        assertThat(RouteClassifier.isPublic(request("/authors"))).isFalse();
+        assertThat(RouteClassifier.isPublic(request("/activity/register"))).isFalse();
+    }
+
+    @Test
+    void emptyPathIsNotPublic() {
+        assertThat(RouteClassifier.isPublic(request(""))).isFalse();
+        assertThat(RouteClassifier.isPublic(request("/"))).isFalse();
+    }
+
+    @Test
+    void activationAndJwksAreExemptFromTheVersionCheck() {
+        assertThat(RouteClassifier.isVersionCheckExempt(request("/activate/abc"))).isTrue();
+        assertThat(RouteClassifier.isVersionCheckExempt(request("/auth/jwks"))).isTrue();
+        assertThat(RouteClassifier.isVersionCheckExempt(request("/auth/login"))).isFalse();
+        assertThat(RouteClassifier.isVersionCheckExempt(request("/auth/jwks/extra"))).isFalse();
+    }
+
+    @Test
+    void publicPatternsCoverEveryPublicRoot() {
+        assertThat(RouteClassifier.publicPatterns())
+                .containsExactlyInAnyOrder("/auth/**", "/register/**", "/activate/**");
+    }
+
+    private static MockHttpServletRequest request(String servletPath) {
+        var request = new MockHttpServletRequest();
+        request.setServletPath(servletPath);
+        return request;
+    }
+}
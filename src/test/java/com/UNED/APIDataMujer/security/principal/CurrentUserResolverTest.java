@@ -0,0 +1,72 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrentUserResolverTest {
+
+    private UserRepository userRepository;
+    private CurrentUserResolver resolver;
+    private UsernamePasswordAuthenticationToken authentication;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        resolver = new CurrentUserResolver(userRepository);
+        authentication = new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(7L, "ana", "ROLE_STANDARD", "FISICA"), null, List.of());
+        when(userRepository.findById(7L))
+                .thenReturn(Optional.of(User.builder().id(7L).username("ana").build()));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void loadsTheUserOncePerRequest() {
+        var first = resolver.resolve(authentication);
+        var second = resolver.resolve(authentication);
+
+        assertThat(second).isSameAs(first);
+        verify(userRepository, times(1)).findById(7L);
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void findResolvedReusesTheUserOnlyForTheSameUsername() {
+        var user = resolver.resolve(authentication);
+
+        assertThat(resolver.findResolved("ana")).isSameAs(user);
+        assertThat(resolver.findResolved("otra")).isNull();
+    }
+
+    @Test
+    void loadsAgainInANewRequest() {
+        resolver.resolve(authentication);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        resolver.resolve(authentication);
+
+        verify(userRepository, times(2)).findById(7L);
+    }
+}
@@ -0,0 +1,32 @@
+package com.UNED.APIDataMujer.security.principal;
+
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.enums.Role;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityUserTest {
+
+    private static final String HASH = "$2a$10$abcdefghijklmnopqrstuv";
+
+    @Test
+    void toStringOnlyExposesTheUsername() {
+        var principal = new SecurityUser(User.builder()
+                .username("ana")
+                .password(HASH)
+                .role(Role.ROLE_STANDARD)
+                .build());
+
+        assertThat(principal.toString())
+                .contains("ana")
+                .doesNotContain(HASH);
+    }
+
+    @Test
+    void userToStringDoesNotExposeThePassword() {
+        var user = User.builder().username("ana").password(HASH).build();
+
+        assertThat(user.toString()).doesNotContain(HASH);
+    }
+}
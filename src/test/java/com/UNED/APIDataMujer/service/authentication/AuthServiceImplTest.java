@@ -0,0 +1,91 @@
+package com.UNED.APIDataMujer.service.authentication;
+
+import com.UNED.APIDataMujer.config.RateLimitProperties;
+import com.UNED.APIDataMujer.dto.authentication.UserLoginDTO;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.enums.Role;
+import com.UNED.APIDataMujer.enums.TokenType;
+import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.security.principal.SecurityUser;
+import com.UNED.APIDataMujer.service.cache.RateLimiter;
+import com.UNED.APIDataMujer.service.jwt.JwtService;
+import com.UNED.APIDataMujer.service.registration.ActivationService;
+import com.UNED.APIDataMujer.service.resource.TokenEpochService;
+import com.UNED.APIDataMujer.service.resource.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class AuthServiceImplTest {
+
+    private JwtService jwtService;
+    private TokenService tokenService;
+    private AuthenticationManager authManager;
+    private UserRepository userRepository;
+    private RateLimiter rateLimiter;
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        tokenService = mock(TokenService.class);
+        authManager = mock(AuthenticationManager.class);
+        userRepository = mock(UserRepository.class);
+        rateLimiter = mock(RateLimiter.class);
+        when(rateLimiter.tryConsume(anyString(), anyInt(), anyLong())).thenReturn(0L);
+
+        authService = new AuthServiceImpl(jwtService, mock(ActivationService.class), tokenService,
+                mock(TokenEpochService.class), rateLimiter,
+                new RateLimitProperties(true, 100, 60_000L, 60_000L, Map.of(),
+                        new RateLimitProperties.Limit(5, 60_000L)),
+                authManager, userRepository);
+        ReflectionTestUtils.setField(authService, "accessExpiration", 60_000L);
+    }
+
+    @Test
+    void loginReusesTheAuthenticatedUserAndRotatesTokensOnce() {
+        var user = User.builder().id(1L).username("ana").role(Role.ROLE_STANDARD).isActive(true).build();
+        when(authManager.authenticate(any())).thenReturn(new UsernamePasswordAuthenticationToken(
+                new SecurityUser(user), null, List.of()));
+        when(jwtService.generateAccessToken(user)).thenReturn("access");
+        when(jwtService.generateRefreshToken(user)).thenReturn("refresh");
+
+        var response = authService.login(new UserLoginDTO("ana", "secreta"));
+
+        assertThat(response.accessToken()).isEqualTo("access");
+        assertThat(response.refreshToken()).isEqualTo("refresh");
+        verifyNoInteractions(userRepository);
+        verify(tokenService).replaceActiveTokens(eq("access"), eq(user), eq(TokenType.BEARER), eq(60_000L));
+        verify(rateLimiter).refund("login-user|ana", 5);
+    }
+
+    @Test
+    void failedLoginKeepsTheConsumedPermit() {
+        when(authManager.authenticate(any())).thenThrow(new BadCredentialsException("bad"));
+
+        assertThatThrownBy(() -> authService.login(new UserLoginDTO("ana", "incorrecta")))
+                .isInstanceOf(BadCredentialsException.class);
+
+        verify(rateLimiter).tryConsume("login-user|ana", 5, 60_000L);
+        verify(rateLimiter, never()).refund(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,134 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CountCache cache;
+    private AtomicLong queries;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(100, 60_000L);
+        queries = new AtomicLong();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void cachedTotalIsServedWithoutCounting() {
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(5))).isEqualTo(5);
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(9))).isEqualTo(5);
+
+        assertThat(queries.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("list.count.cache.hits").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("list.count.cache.misses").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void filtersAreCachedSeparately() {
+        cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(5));
+
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "8", () -> counted(2))).isEqualTo(2);
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationOnlyDropsTheGivenScopes() {
+        cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(5));
+        cache.count(CountCache.Scope.ACTIVITY, "", () -> counted(3));
+
+        cache.invalidate(CountCache.Scope.PAYMENT);
+
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(6))).isEqualTo(6);
+        assertThat(cache.count(CountCache.Scope.ACTIVITY, "", () -> counted(4))).isEqualTo(3);
+        assertThat(queries.get()).isEqualTo(3);
+    }
+
+    @Test
+    void countStartedBeforeAnInvalidationIsNotStored() {
+        long stale = cache.count(CountCache.Scope.PAYMENT, "7", () -> {
+            cache.invalidate(CountCache.Scope.PAYMENT);
+            return counted(5);
+        });
+
+        assertThat(stale).isEqualTo(5);
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(6))).isEqualTo(6);
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidationOfAnotherScopeDoesNotDiscardTheCount() {
+        cache.count(CountCache.Scope.PAYMENT, "7", () -> {
+            cache.invalidate(CountCache.Scope.ACTIVITY);
+            return counted(5);
+        });
+
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(6))).isEqualTo(5);
+        assertThat(queries.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationIsRepeatedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        cache.invalidate(CountCache.Scope.PAYMENT);
+        cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(5));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(6))).isEqualTo(6);
+        assertThat(queries.get()).isEqualTo(2);
+    }
+
+    @Test
+    void expiredTotalsAreCountedAgain() {
+        cache = newCache(100, 0L);
+
+        cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(5));
+
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "7", () -> counted(6))).isEqualTo(6);
+    }
+
+    @Test
+    void leastRecentlyUsedTotalIsEvictedWhenFull() {
+        cache = newCache(2, 60_000L);
+        cache.count(CountCache.Scope.PAYMENT, "1", () -> counted(1));
+        cache.count(CountCache.Scope.PAYMENT, "2", () -> counted(2));
+        cache.count(CountCache.Scope.PAYMENT, "1", () -> counted(-1));
+
+        cache.count(CountCache.Scope.PAYMENT, "3", () -> counted(3));
+
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "1", () -> counted(-1))).isEqualTo(1);
+        assertThat(cache.count(CountCache.Scope.PAYMENT, "2", () -> counted(20))).isEqualTo(20);
+    }
+
+    private long counted(long value) {
+        queries.incrementAndGet();
+        return value;
+    }
+
+    private CountCache newCache(int maxSize, long ttl) {
+        meterRegistry = new SimpleMeterRegistry();
+        var countCache = new CountCache(meterRegistry);
+        ReflectionTestUtils.setField(countCache, "maxSize", maxSize);
+        ReflectionTestUtils.setField(countCache, "ttl", ttl);
+        countCache.init();
+        return countCache;
+    }
+}
@@ -0,0 +1,87 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import com.UNED.APIDataMujer.enums.TokenType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssuanceThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IssuanceThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        throttle = new IssuanceThrottle(meterRegistry);
+        ReflectionTestUtils.setField(throttle, "window", 3_600_000L);
+        ReflectionTestUtils.setField(throttle, "cooldown", 60_000L);
+        ReflectionTestUtils.setField(throttle, "maxPerWindow", 3);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 2);
+        throttle.init();
+    }
+
+    @Test
+    void suppressesWithinTheCooldownWhileTheTokenIsStillValid() {
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> true)).isTrue();
+
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> true)).isFalse();
+        assertThat(suppressed("cooldown")).isEqualTo(1.0);
+    }
+
+    @Test
+    void issuesAgainWithinTheCooldownOnceThePreviousTokenIsNoLongerValid() {
+        assertThat(throttle.tryAcquire(TokenType.PASSWORD_RESET, 1L, () -> false)).isTrue();
+        assertThat(throttle.tryAcquire(TokenType.PASSWORD_RESET, 1L, () -> false)).isTrue();
+    }
+
+    @Test
+    void issuesAgainAfterTheCooldownWithoutQueryingTheTokens() {
+        ReflectionTestUtils.setField(throttle, "cooldown", 0L);
+        AtomicInteger lookups = new AtomicInteger();
+
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> lookups.incrementAndGet() > 0)).isTrue();
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> lookups.incrementAndGet() > 0)).isTrue();
+        assertThat(lookups).hasValue(0);
+    }
+
+    @Test
+    void suppressesIssuanceOnceTheWindowIsFull() {
+        for(int i = 0; i < 3; i++)
+            assertThat(throttle.tryAcquire(TokenType.PASSWORD_RESET, 1L, () -> false)).isTrue();
+
+        assertThat(throttle.tryAcquire(TokenType.PASSWORD_RESET, 1L, () -> false)).isFalse();
+        assertThat(suppressed("window")).isEqualTo(1.0);
+    }
+
+    @Test
+    void tracksUsersAndTokenTypesSeparately() {
+        for(int i = 0; i < 3; i++)
+            throttle.tryAcquire(TokenType.PASSWORD_RESET, 1L, () -> false);
+
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> false)).isTrue();
+        assertThat(throttle.tryAcquire(TokenType.PASSWORD_RESET, 2L, () -> false)).isTrue();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedWindowOnceTheCapIsReached() {
+        throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> false);
+        throttle.tryAcquire(TokenType.ACTIVATION, 2L, () -> false);
+        throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> false);
+        throttle.tryAcquire(TokenType.ACTIVATION, 3L, () -> false);
+
+        assertThat(throttle.size()).isEqualTo(2);
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 1L, () -> true)).isFalse();
+        assertThat(throttle.tryAcquire(TokenType.ACTIVATION, 2L, () -> true)).isTrue();
+    }
+
+    private double suppressed(String reason) {
+        var counter = meterRegistry.find("token.issuance.suppressed").tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
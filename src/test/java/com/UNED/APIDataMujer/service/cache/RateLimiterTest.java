@@ -0,0 +1,131 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import com.UNED.APIDataMujer.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void grantsUpToTheCapacityAndThenReportsTheWait() {
+        var limiter = limiter(true, 10, 600_000L);
+
+        assertThat(limiter.tryConsume("login|1.1.1.1", 2, 60_000L)).isZero();
+        assertThat(limiter.tryConsume("login|1.1.1.1", 2, 60_000L)).isZero();
+
+        assertThat(limiter.tryConsume("login|1.1.1.1", 2, 60_000L))
+                .isPositive()
+                .isLessThanOrEqualTo(30_000L);
+    }
+
+    @Test
+    void keysDoNotShareBuckets() {
+        var limiter = limiter(true, 10, 600_000L);
+        limiter.tryConsume("login|1.1.1.1", 1, 60_000L);
+
+        assertThat(limiter.tryConsume("login|2.2.2.2", 1, 60_000L)).isZero();
+        assertThat(limiter.tryConsume("refresh|1.1.1.1", 1, 60_000L)).isZero();
+    }
+
+    @Test
+    void neverKeepsMoreKeysThanTheCapEvenWhenNoneIsIdle() {
+        var limiter = limiter(true, 2, 600_000L);
+
+        for(int i = 0; i < 1_000; i++)
+            limiter.tryConsume("login|10.0.0." + i, 1, 60_000L);
+
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void newKeysShareAnOverflowBucketOnceTheCapIsReached() {
+        var limiter = limiter(true, 2, 600_000L);
+        limiter.tryConsume("login|a", 1, 60_000L);
+        limiter.tryConsume("login|b", 1, 60_000L);
+
+        assertThat(limiter.tryConsume("login|c", 1, 60_000L)).isZero();
+        assertThat(limiter.tryConsume("login|d", 1, 60_000L)).isPositive();
+        assertThat(limiter.tryConsume("refresh|c", 1, 60_000L)).isZero();
+    }
+
+    @Test
+    void scheduledEvictionFreesRoomForNewKeys() {
+        var limiter = limiter(true, 1, 0L);
+        limiter.tryConsume("login|a", 1, 60_000L);
+        limiter.tryConsume("login|b", 1, 60_000L);
+
+        limiter.scheduledEviction();
+        limiter.tryConsume("login|c", 1, 60_000L);
+
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryConsume("login|d", 1, 60_000L)).isZero();
+    }
+
+    @Test
+    void refundReturnsAPermitWithoutExceedingTheCapacity() {
+        var limiter = limiter(true, 10, 600_000L);
+        limiter.tryConsume("login|a", 1, 60_000L);
+
+        limiter.refund("login|a", 1);
+        limiter.refund("login|a", 1);
+
+        assertThat(limiter.tryConsume("login|a", 1, 60_000L)).isZero();
+        assertThat(limiter.tryConsume("login|a", 1, 60_000L)).isPositive();
+    }
+
+    @Test
+    void concurrentConsumersNeverGetMorePermitsThanTheCapacity() throws Exception {
+        var limiter = limiter(true, 10, 600_000L);
+        var granted = new AtomicInteger();
+        var pool = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = IntStream.range(0, 200)
+                    .<Callable<Void>>mapToObj(i -> () -> {
+                        if(limiter.tryConsume("login|a", 50, 3_600_000L) == 0)
+                            granted.incrementAndGet();
+                        return null;
+                    })
+                    .toList();
+            pool.invokeAll(tasks);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(granted).hasValue(50);
+    }
+
+    @Test
+    void scheduledEvictionRemovesIdleKeys() {
+        var limiter = limiter(true, 10, 0L);
+        limiter.tryConsume("login|a", 1, 60_000L);
+
+        limiter.scheduledEviction();
+
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void grantsEverythingWhenDisabled() {
+        var limiter = limiter(false, 10, 600_000L);
+
+        for(int i = 0; i < 5; i++)
+            assertThat(limiter.tryConsume("login|a", 1, 60_000L)).isZero();
+        assertThat(limiter.size()).isZero();
+    }
+
+    private static RateLimiter limiter(boolean enabled, int maxKeys, long idleTimeout) {
+        var limiter = new RateLimiter(
+                new RateLimitProperties(enabled, maxKeys, idleTimeout, 60_000L, Map.of(),
+                        new RateLimitProperties.Limit(5, 300_000L)),
+                new SimpleMeterRegistry());
+        return limiter;
+    }
+}
@@ -0,0 +1,80 @@
+package com.UNED.APIDataMujer.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenStatusCacheTest {
+
+    private TokenStatusCache cache;
+    private Date expiration;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TokenStatusCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+        ReflectionTestUtils.setField(cache, "maxTtl", 60_000L);
+        cache.init();
+        expiration = new Date(System.currentTimeMillis() + 60_000L);
+    }
+
+    @Test
+    void storesStatusReadInTheSameGeneration() {
+        cache.put("a", 1L, true, expiration, cache.generation());
+
+        assertThat(cache.getStatus("a")).isTrue();
+    }
+
+    @Test
+    void discardsStatusReadBeforeAnInvalidation() {
+        final long generation = cache.generation();
+        cache.invalidate("a");
+        cache.put("a", 1L, true, expiration, generation);
+
+        assertThat(cache.getStatus("a")).isNull();
+    }
+
+    @Test
+    void discardsStatusReadBeforeAUserInvalidation() {
+        final long generation = cache.generation();
+        cache.invalidateUser(1L);
+        cache.put("a", 1L, true, expiration, generation);
+
+        assertThat(cache.getStatus("a")).isNull();
+    }
+
+    @Test
+    void invalidateUserRemovesOnlyThatUsersTokens() {
+        cache.put("a", 1L, true, expiration, cache.generation());
+        cache.put("b", 2L, true, expiration, cache.generation());
+
+        cache.invalidateUser(1L);
+
+        assertThat(cache.getStatus("a")).isNull();
+        assertThat(cache.getStatus("b")).isTrue();
+    }
+
+    @Test
+    void doesNotStoreStatusOfExpiredJwt() {
+        cache.put("a", 1L, true, new Date(System.currentTimeMillis() - 1), cache.generation());
+
+        assertThat(cache.getStatus("a")).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntryWhenFull() {
+        cache.put("a", 1L, true, expiration, cache.generation());
+        cache.put("b", 2L, true, expiration, cache.generation());
+        cache.getStatus("a");
+        cache.put("c", 3L, true, expiration, cache.generation());
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getStatus("b")).isNull();
+        assertThat(cache.getStatus("a")).isTrue();
+    }
+}
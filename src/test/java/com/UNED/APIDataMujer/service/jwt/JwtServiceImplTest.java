@@ -0,0 +1,80 @@
+package com.UNED.APIDataMujer.service.jwt;
+
+import com.UNED.APIDataMujer.entity.Person;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.enums.PersonType;
+import com.UNED.APIDataMujer.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceImplTest {
+
+    private JwtServiceImpl jwtService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService((byte) 1);
+        user = User.builder()
+                .id(42L)
+                .username("ana")
+                .role(Role.ROLE_MENTOR)
+                .tokenEpoch(7L)
+                .person(Person.builder().personType(PersonType.LEGAL).build())
+                .build();
+    }
+
+    @Test
+    void verifyTokenRoundTripsTheClaims() {
+        var claims = jwtService.verifyToken(jwtService.generateAccessToken(user));
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().userId()).isEqualTo(42L);
+        assertThat(claims.get().username()).isEqualTo("ana");
+        assertThat(claims.get().epoch()).isEqualTo(7L);
+        assertThat(claims.get().role()).isEqualTo("ROLE_MENTOR");
+        assertThat(claims.get().personType()).isEqualTo("LEGAL");
+        assertThat(claims.get().tokenId()).isNotBlank();
+        assertThat(claims.get().isExpired()).isFalse();
+        assertThat(jwtService.isTokenValid(claims.get(), user)).isTrue();
+    }
+
+    @Test
+    void verifyTokenRejectsATokenSignedWithAnotherKey() {
+        var foreignToken = newService((byte) 2).generateAccessToken(user);
+
+        assertThat(jwtService.verifyToken(foreignToken)).isEmpty();
+    }
+
+    @Test
+    void verifyTokenRejectsMalformedTokens() {
+        assertThat(jwtService.verifyToken("no-es-un-jwt")).isEmpty();
+        assertThat(jwtService.verifyToken("")).isEmpty();
+    }
+
+    @Test
+    void verifyTokenRejectsExpiredTokens() {
+        ReflectionTestUtils.setField(jwtService, "expiration", -1000L);
+
+        assertThat(jwtService.verifyToken(jwtService.generateAccessToken(user))).isEmpty();
+    }
+
+    private static JwtServiceImpl newService(byte keyFill) {
+        var keyBytes = new byte[32];
+        Arrays.fill(keyBytes, keyFill);
+
+        var service = new JwtServiceImpl(new JwtKeyProvider(new DefaultResourceLoader()));
+        ReflectionTestUtils.setField(service, "secretKey", Base64.getEncoder().encodeToString(keyBytes));
+        ReflectionTestUtils.setField(service, "expiration", 60_000L);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 120_000L);
+        service.init();
+        return service;
+    }
+}
@@ -0,0 +1,78 @@
+package com.UNED.APIDataMujer.service.resource;
+
+import com.UNED.APIDataMujer.repository.UserRepository;
+import com.UNED.APIDataMujer.service.jwt.JwtClaims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenEpochServiceTest {
+
+    private UserRepository userRepository;
+    private TokenEpochService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        service = new TokenEpochService(userRepository);
+        ReflectionTestUtils.setField(service, "revocationMode", "epoch");
+        ReflectionTestUtils.setField(service, "refreshInterval", 30_000L);
+        ReflectionTestUtils.setField(service, "maxSize", 2);
+        service.init();
+    }
+
+    @Test
+    void acceptsTokenIssuedOnAnotherNodeAfterTheEpochWasCached() {
+        when(userRepository.findTokenEpochById(1L)).thenReturn(Optional.of(3L), Optional.of(4L));
+        assertThat(service.isEpochValid(claims(1L, 3L))).isTrue();
+
+        assertThat(service.isEpochValid(claims(1L, 4L))).isTrue();
+        assertThat(service.isEpochValid(claims(1L, 3L))).isFalse();
+        verify(userRepository, times(2)).findTokenEpochById(1L);
+    }
+
+    @Test
+    void rejectsTokenOlderThanTheCurrentEpochWithoutReloading() {
+        when(userRepository.findTokenEpochById(1L)).thenReturn(Optional.of(5L));
+        assertThat(service.isEpochValid(claims(1L, 5L))).isTrue();
+
+        assertThat(service.isEpochValid(claims(1L, 4L))).isFalse();
+        verify(userRepository, times(1)).findTokenEpochById(1L);
+    }
+
+    @Test
+    void rejectsTokenWithoutEpochOrUser() {
+        assertThat(service.isEpochValid(claims(null, 1L))).isFalse();
+        assertThat(service.isEpochValid(claims(1L, null))).isFalse();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedEpochWhenFull() {
+        when(userRepository.findTokenEpochById(1L)).thenReturn(Optional.of(0L));
+        when(userRepository.findTokenEpochById(2L)).thenReturn(Optional.of(0L));
+        when(userRepository.findTokenEpochById(3L)).thenReturn(Optional.of(0L));
+
+        service.isEpochValid(claims(1L, 0L));
+        service.isEpochValid(claims(2L, 0L));
+        service.isEpochValid(claims(1L, 0L));
+        service.isEpochValid(claims(3L, 0L));
+        service.isEpochValid(claims(1L, 0L));
+        service.isEpochValid(claims(2L, 0L));
+
+        verify(userRepository, times(1)).findTokenEpochById(1L);
+        verify(userRepository, times(2)).findTokenEpochById(2L);
+    }
+
+    private static JwtClaims claims(Long userId, Long epoch) {
+        return new JwtClaims("jti", userId, "ana", "ROLE_STANDARD", "FISICA",
+                null, null, epoch);
+    }
+}
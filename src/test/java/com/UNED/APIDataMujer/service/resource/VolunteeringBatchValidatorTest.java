@@ -0,0 +1,175 @@
+package com.UNED.APIDataMujer.service.resource;
+
+import com.UNED.APIDataMujer.dto.projection.ShiftRow;
+import com.UNED.APIDataMujer.entity.Activity;
+import com.UNED.APIDataMujer.entity.User;
+import com.UNED.APIDataMujer.entity.Volunteering;
+import com.UNED.APIDataMujer.exception.BusinessValidationException;
+import com.UNED.APIDataMujer.repository.VolunteeringRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VolunteeringBatchValidatorTest {
+
+    private static final long ORGANIZER_ID = 1L;
+    private static final LocalDateTime START = LocalDateTime.of(2030, 1, 10, 8, 0);
+
+    private VolunteeringRepository volunteeringRepository;
+    private VolunteeringBatchValidator validator;
+    private Activity activity;
+    private User organizer;
+    private User ana;
+    private User bea;
+
+    @BeforeEach
+    void setUp() {
+        volunteeringRepository = mock(VolunteeringRepository.class);
+        validator = new VolunteeringBatchValidator(volunteeringRepository);
+        activity = Activity.builder()
+                .id(10L)
+                .startDate(START)
+                .endDate(START.plusDays(1))
+                .isFinalized(false)
+                .build();
+        organizer = User.builder().id(ORGANIZER_ID).username("organizer").build();
+        ana = User.builder().id(2L).username("ana").build();
+        bea = User.builder().id(3L).username("bea").build();
+    }
+
+    @Test
+    void disjointShiftsArePersistedWithOneLookup() {
+        var batch = List.of(shift(ana, 0, 2), shift(ana, 3, 5), shift(bea, 0, 4));
+
+        assertThatCode(() -> validator.validate(activity, ORGANIZER_ID, batch)).doesNotThrowAnyException();
+        verify(volunteeringRepository).findShiftsWithSameOrganizer(
+                anyCollection(), eq(ORGANIZER_ID), eq(START), eq(START.plusHours(5)));
+    }
+
+    @Test
+    void touchingShiftsDoNotOverlap() {
+        var batch = List.of(shift(ana, 0, 2), shift(ana, 2, 4));
+        when(volunteeringRepository.findShiftsWithSameOrganizer(anyCollection(), anyLong(), any(), any()))
+                .thenReturn(List.of(new ShiftRow(ana.getId(), START.plusHours(4), START.plusHours(6))));
+
+        assertThatCode(() -> validator.validate(activity, ORGANIZER_ID, batch)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void overlapInsideTheBatchIsRejected() {
+        var batch = List.of(shift(bea, 0, 2), shift(ana, 0, 3), shift(ana, 2, 4));
+
+        assertThatThrownBy(() -> validator.validate(activity, ORGANIZER_ID, batch))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("ana")
+                .hasMessageContaining("el lote contiene turnos suyos que se solapan");
+    }
+
+    @Test
+    void overlapWithAnExistingShiftIsRejected() {
+        var batch = List.of(shift(ana, 2, 4));
+        when(volunteeringRepository.findShiftsWithSameOrganizer(anyCollection(), anyLong(), any(), any()))
+                .thenReturn(List.of(new ShiftRow(ana.getId(), START, START.plusHours(3))));
+
+        assertThatThrownBy(() -> validator.validate(activity, ORGANIZER_ID, batch))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("ana")
+                .hasMessageContaining("dos actividades del mismo organizador");
+    }
+
+    @Test
+    void existingShiftStartingInsideANewShiftIsRejected() {
+        var batch = List.of(shift(ana, 0, 4));
+        when(volunteeringRepository.findShiftsWithSameOrganizer(anyCollection(), anyLong(), any(), any()))
+                .thenReturn(List.of(new ShiftRow(ana.getId(), START.plusHours(3), START.plusHours(5))));
+
+        assertThatThrownBy(() -> validator.validate(activity, ORGANIZER_ID, batch))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("dos actividades del mismo organizador");
+    }
+
+    @Test
+    void overlapsBetweenExistingShiftsAreIgnored() {
+        var batch = List.of(shift(ana, 6, 8));
+        when(volunteeringRepository.findShiftsWithSameOrganizer(anyCollection(), anyLong(), any(), any()))
+                .thenReturn(List.of(
+                        new ShiftRow(ana.getId(), START, START.plusHours(3)),
+                        new ShiftRow(ana.getId(), START.plusHours(1), START.plusHours(4))));
+
+        assertThatCode(() -> validator.validate(activity, ORGANIZER_ID, batch)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void organizerIsNotCheckedAgainstExistingShifts() {
+        var batch = List.of(shift(organizer, 0, 2));
+
+        assertThatCode(() -> validator.validate(activity, ORGANIZER_ID, batch)).doesNotThrowAnyException();
+        verify(volunteeringRepository, never())
+                .findShiftsWithSameOrganizer(anyCollection(), anyLong(), any(), any());
+    }
+
+    @Test
+    void organizerIsLeftOutOfTheLookup() {
+        var batch = List.of(shift(organizer, 0, 2), shift(ana, 0, 2));
+
+        validator.validate(activity, ORGANIZER_ID, batch);
+
+        verify(volunteeringRepository).findShiftsWithSameOrganizer(
+                eq(List.of(ana.getId())), eq(ORGANIZER_ID), any(), any());
+    }
+
+    @Test
+    void organizerShiftsInsideTheBatchMustStillNotOverlap() {
+        var batch = List.of(shift(organizer, 0, 3), shift(organizer, 2, 4));
+
+        assertThatThrownBy(() -> validator.validate(activity, ORGANIZER_ID, batch))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining("el lote contiene turnos suyos que se solapan");
+    }
+
+    @Test
+    void shiftRulesAreCheckedBeforeTheLookup() {
+        assertRejected(List.of(shift(ana, 2, 2)), "la fecha de inicio está después");
+        assertRejected(List.of(shift(ana, -1, 2)), "fuera del rango de la actividad");
+        assertRejected(List.of(shift(ana, 23, 25)), "fuera del rango de la actividad");
+        assertRejected(List.of(shift(ana, 0, 13)), "de 1 hora mínimo a 12 horas máximo");
+        verify(volunteeringRepository, never())
+                .findShiftsWithSameOrganizer(anyCollection(), anyLong(), any(), any());
+    }
+
+    @Test
+    void finalizedActivityIsRejected() {
+        activity.setFinalized(true);
+
+        assertRejected(List.of(shift(ana, 0, 2)), "la actividad está concluida");
+    }
+
+    private void assertRejected(List<Volunteering> batch, String reason) {
+        assertThatThrownBy(() -> validator.validate(activity, ORGANIZER_ID, batch))
+                .isInstanceOf(BusinessValidationException.class)
+                .hasMessageContaining(reason);
+    }
+
+    private Volunteering shift(User user, int fromHour, int toHour) {
+        return Volunteering.builder()
+                .activity(activity)
+                .user(user)
+                .startShift(START.plusHours(fromHour))
+                .endShift(START.plusHours(toHour))
+                .activityRole("Apoyo")
+                .build();
+    }
+}